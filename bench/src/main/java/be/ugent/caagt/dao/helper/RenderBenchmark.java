@@ -0,0 +1,95 @@
+/*
+ * RenderBenchmark.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a statement with the fluent API and rendering its SQL text, for statements
+ * with a typical number of clauses. No database is needed. The {@code concatenation} benchmark
+ * builds the same select statement by repeated string concatenation, for comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RenderBenchmark extends BaseDAO {
+
+    @Param({"5", "10", "20"})
+    public int clauses;
+
+    private String[] columns;
+
+    public RenderBenchmark() {
+        super(new BaseDAC(null) {
+        });
+    }
+
+    @Setup
+    public void setup() {
+        columns = new String[clauses];
+        for (int i = 0; i < clauses; i++) {
+            columns[i] = "column_" + i;
+        }
+    }
+
+    @Benchmark
+    public String select() {
+        SelectSQLStatement statement = select("id, name").from("measurements");
+        for (int i = 0; i < clauses; i++) {
+            statement = statement.where(columns[i], i);
+        }
+        return statement.orderBy("id").getStatement();
+    }
+
+    @Benchmark
+    public String concatenation() {
+        String stat = "SELECT id, name";
+        stat += " FROM " + "measurements";
+        for (int i = 0; i < clauses; i++) {
+            stat += i == 0 ? " WHERE " : " AND ";
+            stat += columns[i] + " = ?";
+        }
+        stat += " ORDER BY " + "id" + " ASC";
+        return stat;
+    }
+
+    @Benchmark
+    public String update() {
+        UpdateSQLStatement statement = update("measurements");
+        for (int i = 0; i < clauses; i++) {
+            statement = statement.set(columns[i], i);
+        }
+        return statement.where("id", 1).getStatement();
+    }
+
+    @Benchmark
+    public String upsert() {
+        UpsertSQLStatement statement = insertOrUpdateInto("measurements").key("id", 1).value(columns[0], 0);
+        for (int i = 1; i < clauses; i++) {
+            statement = statement.value(columns[i], i);
+        }
+        return statement.getFullStatement();
+    }
+}
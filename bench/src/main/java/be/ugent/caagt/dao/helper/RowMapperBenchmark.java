@@ -0,0 +1,126 @@
+/*
+ * RowMapperBenchmark.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of converting all rows of a result set with a converter that reads its columns by label
+ * ({@code byName}), compared to a {@link RowMapper} that resolves the labels once per result set
+ * ({@code rowMapper}, which includes the cost of resolving), to a mapper that is generated
+ * for the record type ({@code recordMapper}) and to a converter with hard coded column indices ({@code byIndex}). Uses the PostgreSQL JDBC driver, and requires the test database.
+ * The result set is scrollable, so that it is retrieved from the database only once.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RowMapperBenchmark {
+
+    private static final String URL = "jdbc:postgresql://localhost/daohelpertestdb?user=daohelpertestuser&password=daohelper";
+
+    private record Row(int id, String name, String firstName, int number, boolean flag) {
+    }
+
+    private static final ResultSetConverter<Row> BY_NAME = rs -> new Row(
+            rs.getInt("id"), rs.getString("name"), rs.getString("first_name"),
+            rs.getInt("number"), rs.getBoolean("flag")
+    );
+
+    private static final ResultSetConverter<Row> BY_INDEX = rs -> new Row(
+            rs.getInt(1), rs.getString(2), rs.getString(3), rs.getInt(4), rs.getBoolean(5)
+    );
+
+    private static final RowMapper.Binder<Row> BINDER = columns -> {
+        int id = columns.get("id");
+        int name = columns.get("name");
+        int firstName = columns.get("first_name");
+        int number = columns.get("number");
+        int flag = columns.get("flag");
+        return rs -> new Row(rs.getInt(id), rs.getString(name), rs.getString(firstName),
+                rs.getInt(number), rs.getBoolean(flag));
+    };
+
+    private static final RowMapper<Row> RECORD_MAPPER = RowMapper.of(Row.class);
+
+    @Param({"10", "1000"})
+    public int rows;
+
+    private Connection connection;
+
+    private Statement statement;
+
+    private ResultSet resultSet;
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection(URL);
+        statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        resultSet = statement.executeQuery(
+                "SELECT n AS id, 'Name ' || n AS name, 'First ' || n AS first_name, n * 2 AS number, " +
+                "n % 2 = 0 AS flag FROM generate_series(1, " + rows + ") AS n"
+        );
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        resultSet.close();
+        statement.close();
+        connection.close();
+    }
+
+    private void convertAll(ResultSetConverter<Row> converter, Blackhole blackhole) throws SQLException {
+        resultSet.beforeFirst();
+        while (resultSet.next()) {
+            blackhole.consume(converter.convert(resultSet));
+        }
+    }
+
+    @Benchmark
+    public void byName(Blackhole blackhole) throws SQLException {
+        convertAll(BY_NAME, blackhole);
+    }
+
+    @Benchmark
+    public void rowMapper(Blackhole blackhole) throws SQLException {
+        convertAll(RowMapper.of(BINDER), blackhole);
+    }
+
+    @Benchmark
+    public void recordMapper(Blackhole blackhole) throws SQLException {
+        convertAll(RECORD_MAPPER, blackhole);
+    }
+
+    @Benchmark
+    public void byIndex(Blackhole blackhole) throws SQLException {
+        convertAll(BY_INDEX, blackhole);
+    }
+}
@@ -0,0 +1,404 @@
+/*
+ * ConnectionPool.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of JDBC connections, used by {@link DataAccessProvider}. Idle connections are kept in a concurrent deque
+ * (most recently used first) and a semaphore limits the number of connections in use, so that handing out and
+ * returning a connection does not need a lock.
+ * <p>Clients receive a proxy for the physical connection. Closing the proxy returns the physical
+ * connection to the pool. Idle connections are closed when they have not been used for a while (but
+ * never more than the minimum number of idle connections), and are validated before they are
+ * handed out when they have not been used recently. Idle connections are checked whenever a connection
+ * is returned, and periodically by a daemon thread that is shared by all pools, so that they are also
+ * closed when the pool is no longer used.</p>
+ * <p>The minimum number of idle connections is opened when the pool is created, and restored by the
+ * periodic check. The pool cannot be opened in advance when the database cannot be reached, in which case
+ * connections are simply opened on demand.
+ * The periodic check only holds a weak reference to the pool, so that a pool that is never closed can
+ * still be garbage collected, but only closing the pool closes its connections promptly.</p>
+ */
+final class ConnectionPool implements AutoCloseable {
+
+    /**
+     * Opens a new physical connection
+     */
+    interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    // number of seconds to wait for Connection.isValid
+    private static final int VALIDATION_TIMEOUT = 5;
+
+    // bounds for the time between two periodic checks for idle connections
+    private static final long MIN_EVICTION_DELAY = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final long MAX_EVICTION_DELAY = TimeUnit.SECONDS.toNanos(30);
+
+    private static final ScheduledExecutorService EVICTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "daohelper-evictor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final class Entry {
+
+        final Connection connection;
+
+        long lastUsed; // System.nanoTime
+
+        Entry(Connection connection) {
+            this.connection = connection;
+            this.lastUsed = System.nanoTime();
+        }
+    }
+
+    // semaphore whose number of permits can be decreased
+    private static final class Permits extends Semaphore {
+
+        Permits(int permits) {
+            super(permits, true);
+        }
+
+        @Override
+        public void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+
+    private final ConnectionFactory factory;
+
+    private final ConcurrentLinkedDeque<Entry> idle;
+
+    private final AtomicInteger idleCount;
+
+    private final AtomicInteger size;
+
+    private final Permits permits;
+
+    private volatile int maxSize;
+
+    private volatile int minIdle;
+
+    private volatile long idleTimeoutNanos;
+
+    private volatile long validationIntervalNanos;
+
+    private volatile long maxWaitNanos;
+
+    private volatile boolean closed;
+
+    private ScheduledFuture<?> eviction; // next periodic check for idle connections
+
+    private final LongAdder borrows = new LongAdder();
+
+    private final LongAdder creations = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder totalWait = new LongAdder();
+
+    private final AtomicLong maxWait = new AtomicLong();
+
+    ConnectionPool(ConnectionFactory factory, int maxSize, int minIdle, long idleTimeoutNanos,
+                   long validationIntervalNanos, long maxWaitNanos) {
+        this.factory = factory;
+        this.idle = new ConcurrentLinkedDeque<>();
+        this.idleCount = new AtomicInteger();
+        this.size = new AtomicInteger();
+        this.permits = new Permits(maxSize);
+        this.maxSize = maxSize;
+        this.minIdle = minIdle;
+        this.idleTimeoutNanos = idleTimeoutNanos;
+        this.validationIntervalNanos = validationIntervalNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        fillIdle();
+        scheduleEviction();
+    }
+
+    synchronized void setMaxSize(int newMaxSize) {
+        int difference = newMaxSize - maxSize;
+        if (difference > 0) {
+            permits.release(difference);
+        } else if (difference < 0) {
+            permits.reducePermits(-difference);
+        }
+        maxSize = newMaxSize;
+    }
+
+    void setMinIdle(int minIdle) {
+        this.minIdle = minIdle;
+    }
+
+    void setIdleTimeoutNanos(long idleTimeoutNanos) {
+        this.idleTimeoutNanos = idleTimeoutNanos;
+        scheduleEviction();
+    }
+
+    void setValidationIntervalNanos(long validationIntervalNanos) {
+        this.validationIntervalNanos = validationIntervalNanos;
+    }
+
+    void setMaxWaitNanos(long maxWaitNanos) {
+        this.maxWaitNanos = maxWaitNanos;
+    }
+
+    /**
+     * Hands out a connection, waiting at most the maximum wait time when all connections are in use.
+     * Close the result to return it to the pool.
+     */
+    Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire() && !permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException("No connection available within the maximum wait time");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", ex);
+        }
+        long wait = System.nanoTime() - start;
+        totalWait.add(wait);
+        maxWait.accumulateAndGet(wait, Math::max);
+        borrows.increment();
+        try {
+            Entry entry = idle.pollFirst();
+            while (entry != null) {
+                idleCount.decrementAndGet();
+                if (isValid(entry)) {
+                    return proxy(entry);
+                }
+                discard(entry);
+                entry = idle.pollFirst();
+            }
+            entry = new Entry(factory.create());
+            size.incrementAndGet();
+            creations.increment();
+            return proxy(entry);
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    // validation is skipped for connections that were used recently
+    private boolean isValid(Entry entry) {
+        if (System.nanoTime() - entry.lastUsed < validationIntervalNanos) {
+            return true;
+        }
+        try {
+            return entry.connection.isValid(VALIDATION_TIMEOUT);
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    private void discard(Entry entry) {
+        size.decrementAndGet();
+        evictions.increment();
+        try {
+            entry.connection.close();
+        } catch (SQLException ex) {
+            // ignore, the connection is no longer used
+        }
+    }
+
+    // Called when the proxy is closed
+    private void release(Entry entry) {
+        try {
+            Connection connection = entry.connection;
+            if (closed || connection.isClosed()) {
+                discard(entry);
+                return;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            entry.lastUsed = System.nanoTime();
+            idle.offerFirst(entry);
+            idleCount.incrementAndGet();
+            if (closed && idle.removeFirstOccurrence(entry)) {
+                // the pool was closed after the check above, but before its idle connections were closed
+                idleCount.decrementAndGet();
+                discard(entry);
+            }
+        } catch (SQLException ex) {
+            discard(entry);
+        } finally {
+            permits.release();
+        }
+        evictIdle();
+    }
+
+    /**
+     * Closes the connections that have been idle for longer than the idle timeout, keeping
+     * at least the minimum number of idle connections. Also called whenever a connection is returned.
+     */
+    void evictIdle() {
+        long now = System.nanoTime();
+        Entry oldest = idle.peekLast();
+        while (oldest != null && idleCount.get() > minIdle && now - oldest.lastUsed >= idleTimeoutNanos) {
+            if (idle.removeLastOccurrence(oldest)) {
+                idleCount.decrementAndGet();
+                discard(oldest);
+            }
+            oldest = idle.peekLast();
+        }
+    }
+
+    /**
+     * Opens new connections until there are at least the minimum number of idle connections. A connection
+     * that is being opened counts as in use, so that the pool never exceeds its maximum size. Gives up when
+     * all connections are in use or when a connection cannot be opened.
+     */
+    void fillIdle() {
+        for (int i = minIdle; i > 0 && !closed && idleCount.get() < minIdle && permits.tryAcquire(); i--) {
+            try {
+                Entry entry = new Entry(factory.create());
+                size.incrementAndGet();
+                creations.increment();
+                idle.offerFirst(entry);
+                idleCount.incrementAndGet();
+                if (closed && idle.removeFirstOccurrence(entry)) {
+                    idleCount.decrementAndGet();
+                    discard(entry);
+                }
+            } catch (SQLException | RuntimeException ex) {
+                return; // try again at the next periodic check
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    // (Re)schedules the periodic check for idle connections, at half of the idle timeout
+    private synchronized void scheduleEviction() {
+        if (eviction != null) {
+            eviction.cancel(false);
+        }
+        if (!closed) {
+            long delay = Math.max(MIN_EVICTION_DELAY, Math.min(MAX_EVICTION_DELAY, idleTimeoutNanos / 2));
+            eviction = EVICTOR.schedule(periodicCheck(new WeakReference<>(this)), delay, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // the task must not refer to the pool directly, or the executor would keep every pool alive
+    private static Runnable periodicCheck(WeakReference<ConnectionPool> reference) {
+        return () -> {
+            ConnectionPool pool = reference.get();
+            if (pool != null) {
+                try {
+                    pool.evictIdle();
+                    pool.fillIdle();
+                } finally {
+                    pool.scheduleEviction();
+                }
+            }
+        };
+    }
+
+    PoolStatistics getStatistics() {
+        return new PoolStatistics(maxSize, size.get(), idleCount.get(), borrows.sum(), creations.sum(),
+                evictions.sum(), totalWait.sum(), maxWait.get());
+    }
+
+    /**
+     * Closes all idle connections. Connections that are in use are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        scheduleEviction(); // cancels the periodic check
+        Entry entry = idle.pollFirst();
+        while (entry != null) {
+            idleCount.decrementAndGet();
+            size.decrementAndGet();
+            try {
+                entry.connection.close();
+            } catch (SQLException ex) {
+                // ignore
+            }
+            entry = idle.pollFirst();
+        }
+    }
+
+    private Connection proxy(Entry entry) {
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledConnection(entry)
+        );
+    }
+
+    /**
+     * Handler for the proxy that is handed out to clients. Calls are passed to the physical connection,
+     * except for close, which returns the connection to the pool.
+     */
+    private final class PooledConnection implements InvocationHandler {
+
+        private final Entry entry;
+
+        private final AtomicInteger closeCount = new AtomicInteger();
+
+        PooledConnection(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (closeCount.getAndIncrement() == 0) {
+                        release(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return closeCount.get() > 0 || entry.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled " + entry.connection;
+                default:
+                    if (closeCount.get() > 0) {
+                        throw new SQLException("Connection is closed");
+                    }
+                    try {
+                        return method.invoke(entry.connection, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * DataAccessProvider.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao;
+
+import be.ugent.caagt.dao.helper.BaseDAC;
+import be.ugent.caagt.dao.helper.FanOut;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Provides data access contexts of type C, each with its own connection from a connection pool.
+ * Closing the context returns the connection to the pool. For example
+ * <pre>
+ *     DataAccessProvider&lt;MyContext&gt; provider = new DataAccessProvider&lt;&gt;(url, MyContext::new).maxSize(20);
+ *     ...
+ *     try (MyContext context = provider.getContext()) {
+ *         ...
+ *     }
+ * </pre>
+ * <p>Connections are obtained from a {@link DataSource} or from a JDBC URL. The settings of the pool
+ * can be changed at any time.</p>
+ */
+public class DataAccessProvider<C extends BaseDAC> implements AutoCloseable {
+
+    /**
+     * Default value for {@link #maxSize}
+     */
+    public static final int DEFAULT_MAX_SIZE = 10;
+
+    /**
+     * Default value for {@link #minIdle}
+     */
+    public static final int DEFAULT_MIN_IDLE = 1;
+
+    /**
+     * Default value for {@link #idleTimeout}
+     */
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(10);
+
+    /**
+     * Default value for {@link #validationInterval}
+     */
+    public static final Duration DEFAULT_VALIDATION_INTERVAL = Duration.ofSeconds(30);
+
+    /**
+     * Default value for {@link #maxWait}
+     */
+    public static final Duration DEFAULT_MAX_WAIT = Duration.ofSeconds(30);
+
+    private final ConnectionPool pool;
+
+    private final Function<Connection, C> contextFactory;
+
+    private DataAccessProvider(ConnectionPool.ConnectionFactory connectionFactory, Function<Connection, C> contextFactory) {
+        this.pool = new ConnectionPool(connectionFactory, DEFAULT_MAX_SIZE, DEFAULT_MIN_IDLE,
+                DEFAULT_IDLE_TIMEOUT.toNanos(), DEFAULT_VALIDATION_INTERVAL.toNanos(), DEFAULT_MAX_WAIT.toNanos());
+        this.contextFactory = contextFactory;
+    }
+
+    /**
+     * Create a provider that obtains its connections from the given data source, and creates a context
+     * for each connection using the given factory (typically the constructor of the context class).
+     */
+    public DataAccessProvider(DataSource dataSource, Function<Connection, C> contextFactory) {
+        this(dataSource::getConnection, contextFactory);
+    }
+
+    /**
+     * Create a provider that obtains its connections from the given JDBC URL, and creates a context
+     * for each connection using the given factory (typically the constructor of the context class).
+     */
+    public DataAccessProvider(String url, Function<Connection, C> contextFactory) {
+        this(() -> DriverManager.getConnection(url), contextFactory);
+    }
+
+    /**
+     * Maximum number of connections that can be in use at the same time. When all connections are in use,
+     * {@link #getContext} waits for a connection to be returned.
+     */
+    public DataAccessProvider<C> maxSize(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        pool.setMaxSize(maxSize);
+        return this;
+    }
+
+    /**
+     * Number of idle connections that is kept open, even when they are not used. These connections are opened
+     * when the provider is created, and reopened in the background after they were closed.
+     */
+    public DataAccessProvider<C> minIdle(int minIdle) {
+        if (minIdle < 0) {
+            throw new IllegalArgumentException("Minimum number of idle connections must not be negative");
+        }
+        pool.setMinIdle(minIdle);
+        return this;
+    }
+
+    /**
+     * Time after which an idle connection is closed
+     */
+    public DataAccessProvider<C> idleTimeout(Duration idleTimeout) {
+        pool.setIdleTimeoutNanos(idleTimeout.toNanos());
+        return this;
+    }
+
+    /**
+     * A connection that has not been used for longer than this, is validated before it is handed out
+     */
+    public DataAccessProvider<C> validationInterval(Duration validationInterval) {
+        pool.setValidationIntervalNanos(validationInterval.toNanos());
+        return this;
+    }
+
+    /**
+     * Maximum time to wait for a connection when all connections are in use
+     */
+    public DataAccessProvider<C> maxWait(Duration maxWait) {
+        pool.setMaxWaitNanos(maxWait.toNanos());
+        return this;
+    }
+
+    /**
+     * Create a new data access context with a connection from the pool. The context must be closed
+     * after use, to return the connection to the pool.
+     */
+    public C getContext() {
+        try {
+            Connection connection = pool.borrow();
+            try {
+                return contextFactory.apply(connection);
+            } catch (RuntimeException ex) {
+                connection.close();
+                throw ex;
+            }
+        } catch (SQLException ex) {
+            throw new DACException("Could not obtain connection", ex);
+        }
+    }
+
+    /**
+     * Create a fan-out that executes each of its queries on a separate context of this provider
+     */
+    public FanOut fanOut() {
+        return new FanOut(this::getContext);
+    }
+
+    /**
+     * Counters of the connection pool of this provider
+     */
+    public PoolStatistics getStatistics() {
+        return pool.getStatistics();
+    }
+
+    /**
+     * Closes all idle connections, and all other connections as soon as they are returned.
+     * No new contexts can be obtained afterwards.
+     */
+    @Override
+    public void close() {
+        pool.close();
+    }
+}
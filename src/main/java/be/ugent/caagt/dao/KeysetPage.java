@@ -0,0 +1,57 @@
+/*
+ * KeysetPage.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao;
+
+import java.util.List;
+
+/**
+ * Represents a page of a data set of objects of type T, obtained by keyset pagination. Instead of
+ * a page number, the page carries an opaque token which must be used to retrieve the next page.
+ * <p>Unlike {@link Page}, the full size of the data set is not known.</p>
+ */
+public class KeysetPage<T> {
+
+    private final List<T> list;
+
+    private final int pageSize;
+
+    private final String nextToken;
+
+    public KeysetPage(List<T> list, int pageSize, String nextToken) {
+        this.list = list;
+        this.pageSize = pageSize;
+        this.nextToken = nextToken;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * The token that must be used to retrieve the next page, or null if this is the last page.
+     */
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    /**
+     * Whether there is a page after this one.
+     */
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+
+    /**
+     * The list containing the data.
+     */
+    public List<T> getList() {
+        return list;
+    }
+}
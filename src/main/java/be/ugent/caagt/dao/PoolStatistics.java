@@ -0,0 +1,114 @@
+/*
+ * PoolStatistics.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao;
+
+/**
+ * Snapshot of the counters of the connection pool of a {@link DataAccessProvider}.
+ */
+public class PoolStatistics {
+
+    private final int maxSize;
+
+    private final int size;
+
+    private final int idle;
+
+    private final long borrows;
+
+    private final long creations;
+
+    private final long evictions;
+
+    private final long totalWaitNanos;
+
+    private final long maxWaitNanos;
+
+    PoolStatistics(int maxSize, int size, int idle, long borrows, long creations, long evictions,
+                   long totalWaitNanos, long maxWaitNanos) {
+        this.maxSize = maxSize;
+        this.size = size;
+        this.idle = idle;
+        this.borrows = borrows;
+        this.creations = creations;
+        this.evictions = evictions;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+    }
+
+    /**
+     * Maximum number of connections in use at the same time
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Number of open connections, both idle and in use
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Number of open connections that are currently not in use
+     */
+    public int getIdle() {
+        return idle;
+    }
+
+    /**
+     * Number of times a connection was handed out
+     */
+    public long getBorrows() {
+        return borrows;
+    }
+
+    /**
+     * Number of physical connections that were opened
+     */
+    public long getCreations() {
+        return creations;
+    }
+
+    /**
+     * Number of connections that were closed by the pool, because they were idle for too long or failed validation
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Total time spent waiting for a connection to become available, in nanoseconds
+     */
+    public long getTotalWaitNanos() {
+        return totalWaitNanos;
+    }
+
+    /**
+     * Longest time spent waiting for a connection to become available, in nanoseconds
+     */
+    public long getMaxWaitNanos() {
+        return maxWaitNanos;
+    }
+
+    /**
+     * Average time spent waiting for a connection, in nanoseconds, or 0 when no connections were handed out
+     */
+    public double getAverageWaitNanos() {
+        return borrows == 0 ? 0.0 : (double) totalWaitNanos / borrows;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStatistics{maxSize=" + maxSize + ", size=" + size + ", idle=" + idle +
+                ", borrows=" + borrows + ", creations=" + creations + ", evictions=" + evictions +
+                ", totalWaitNanos=" + totalWaitNanos + ", maxWaitNanos=" + maxWaitNanos + "}";
+    }
+}
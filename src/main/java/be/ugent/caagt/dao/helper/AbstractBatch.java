@@ -0,0 +1,308 @@
+/*
+ * AbstractBatch.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import be.ugent.caagt.dao.DataAccessException;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Common super class of batches of inserts or upserts into the same table. Rows are sent to the database
+ * in chunks, as soon as a chunk is full. Call {@link #execute} to send the remaining rows and obtain the result.
+ * <p>All rows must insert values into the same columns. By default, a chunk is executed as a JDBC batch
+ * of single row statements. In multi-row mode every chunk is sent as a single statement with a VALUES clause
+ * that contains all rows of the chunk.</p>
+ * <p>Like the data access context it belongs to, a batch should not be shared between threads.</p>
+ *
+ * @param <P> type of the statement that is extended into a row
+ * @param <R> type of a row
+ * @param <B> type of this batch
+ */
+abstract class AbstractBatch<P, R extends InsertOrUpsert<R>, B extends AbstractBatch<P, R, B>> {
+
+    /**
+     * Maximum number of parameters in a single statement, as imposed by the PostgreSQL protocol
+     * (at least for older drivers)
+     */
+    public static final int MAX_PARAMETERS = 32767;
+
+    private final P prototype;
+
+    private final BaseDAC context;
+
+    private final int chunkSize;
+
+    private final List<R> pending;
+
+    private R first; // first row of the batch, determines the statement of all rows
+
+    private String statement; // of the first row
+
+    private int rowsPerStatement; // multi-row mode only, 0 otherwise
+
+    private String multiRowStatement; // for a full chunk in multi-row mode
+
+    private boolean multiRow;
+
+    private boolean returnKeys;
+
+    private String keyColumn; // null for the first column
+
+    private String keys; // key mode for the statement cache
+
+    private boolean countChanges;
+
+    private String returning; // RETURNING clause added by this batch, or empty
+
+    // Column label for the result of xmax = 0, which is true for inserted and false for updated rows
+    private static final String INSERTED_ID = "__daohelper__inserted";
+
+    private long inserted;
+
+    private long updated;
+
+    private long modified; // -1 when the driver does not report update counts
+
+    private final LongArrayBuilder generatedKeys;
+
+    private final IntArrayBuilder chunkSizes;
+
+    private final LongArrayBuilder chunkNanos;
+
+    AbstractBatch(P prototype, BaseDAC context, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.prototype = prototype;
+        this.context = context;
+        this.chunkSize = chunkSize;
+        this.pending = new ArrayList<>();
+        this.generatedKeys = new LongArrayBuilder();
+        this.chunkSizes = new IntArrayBuilder();
+        this.chunkNanos = new LongArrayBuilder();
+    }
+
+    @SuppressWarnings("unchecked")
+    private B self() {
+        return (B) this;
+    }
+
+    private void checkNoRows() {
+        if (first != null) {
+            throw new IllegalStateException("Must be called before rows are added to the batch");
+        }
+    }
+
+    /**
+     * Return the generated keys of all rows. Assumes the generated key is the first column of the table.
+     * Must be called before rows are added.
+     * @see InsertSQLStatement#create()
+     */
+    public B returnKeys() {
+        checkNoRows();
+        this.returnKeys = true;
+        this.keyColumn = null;
+        return self();
+    }
+
+    /**
+     * Return the generated keys of all rows, as found in the given column. Must be called before rows are added.
+     * @see InsertSQLStatement#create(String)
+     */
+    public B returnKeys(String columnName) {
+        checkNoRows();
+        this.returnKeys = true;
+        this.keyColumn = columnName;
+        return self();
+    }
+
+    /**
+     * Send every chunk as a single statement with multiple rows in its VALUES clause, instead
+     * of as a JDBC batch. Chunks are made smaller when necessary to stay within the limit of
+     * {@value #MAX_PARAMETERS} parameters per statement. Must be called before rows are added.
+     */
+    public B multiRow() {
+        checkNoRows();
+        this.multiRow = true;
+        return self();
+    }
+
+    /**
+     * Count the number of inserted and updated rows.
+     */
+    void countChangesAux() {
+        checkNoRows();
+        this.countChanges = true;
+    }
+
+    // Determines the RETURNING clause (if any) and how the prepared statement should return keys
+    private void initReturning() {
+        if (countChanges) {
+            String columns = !returnKeys ? "" : keyColumn == null ? "*, " : keyColumn + ", ";
+            returning = " RETURNING " + columns + "(xmax = 0) AS " + INSERTED_ID;
+            // the driver does not add a RETURNING clause of its own when one is already present
+            keys = StatementCache.ALL_KEYS;
+        } else {
+            returning = "";
+            if (!returnKeys) {
+                keys = StatementCache.NO_KEYS;
+            } else if (keyColumn == null) {
+                keys = StatementCache.ALL_KEYS;
+            } else {
+                keys = keyColumn.toLowerCase(); // see InsertSQLStatement.create(String)
+            }
+        }
+    }
+
+    /**
+     * Add a row to the batch. The row is obtained by adding values to the statement from which this batch was
+     * created.
+     */
+    public B add(Function<P, R> row) throws DataAccessException {
+        return add(row.apply(prototype));
+    }
+
+    /**
+     * Add a row to the batch.
+     */
+    public B add(R row) throws DataAccessException {
+        if (first == null) {
+            initReturning();
+            statement = row.getFullStatement();
+            first = row;
+            if (multiRow) {
+                rowsPerStatement = Math.max(1, Math.min(chunkSize, MAX_PARAMETERS / row.values.size()));
+            }
+        } else if (!first.hasSameStatement(row)) {
+            throw new IllegalArgumentException("All rows of a batch must insert into the same columns");
+        }
+        pending.add(row);
+        if (pending.size() == (multiRow ? rowsPerStatement : chunkSize)) {
+            flush();
+        }
+        return self();
+    }
+
+    // Sends all pending rows to the database. The rows of a chunk that fails are discarded
+    private void flush() throws DataAccessException {
+        int size = pending.size();
+        if (size == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            if (multiRow) {
+                flushMultiRow();
+            } else {
+                flushBatch();
+            }
+        } catch (SQLException ex) {
+            throw BaseDAO.convert(ex);
+        } finally {
+            pending.clear();
+        }
+        chunkNanos.add(System.nanoTime() - start);
+        chunkSizes.add(size);
+    }
+
+    private void flushBatch() throws SQLException {
+        try (CachedStatement cs = context.prepareStatement(statement + returning, keys)) {
+            PreparedStatement ps = cs.get();
+            for (R row : pending) {
+                row.initParameters(ps);
+                ps.addBatch();
+            }
+            for (int count : ps.executeBatch()) {
+                addModified(count);
+            }
+            collectKeys(ps);
+        }
+    }
+
+    private void flushMultiRow() throws SQLException {
+        int size = pending.size();
+        String sql;
+        if (size == 1) {
+            sql = statement + returning;
+        } else if (size == rowsPerStatement) {
+            if (multiRowStatement == null) {
+                multiRowStatement = pending.get(0).getFullStatement(size) + returning;
+            }
+            sql = multiRowStatement;
+        } else {
+            sql = pending.get(0).getFullStatement(size) + returning;
+        }
+        try (CachedStatement cs = context.prepareStatement(sql, keys)) {
+            PreparedStatement ps = cs.get();
+            int index = 1;
+            for (R row : pending) {
+                index = row.setParameters(ps, index);
+            }
+            addModified(ps.executeUpdate());
+            collectKeys(ps);
+        }
+    }
+
+    private void addModified(int count) {
+        if (count < 0) {
+            modified = -1L; // Statement.SUCCESS_NO_INFO
+        } else if (modified >= 0) {
+            modified += count;
+        }
+    }
+
+    private void collectKeys(PreparedStatement ps) throws SQLException {
+        if (!StatementCache.NO_KEYS.equals(keys)) {
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                while (rs.next()) {
+                    if (returnKeys) {
+                        generatedKeys.add(keyColumn == null ? rs.getLong(1) : rs.getLong(keyColumn));
+                    }
+                    if (countChanges) {
+                        if (rs.getBoolean(INSERTED_ID)) {
+                            inserted++;
+                        } else {
+                            updated++;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Send the remaining rows to the database and return the result for all rows added since the batch was
+     * created or since the previous call to this method. When a chunk fails, its rows are discarded and the
+     * batch remains usable for further rows.
+     */
+    public BatchResult execute() throws DataAccessException {
+        flush();
+        BatchResult batchResult = new BatchResult(
+                chunkSizes.toArray(),
+                chunkNanos.toArray(),
+                returnKeys ? generatedKeys.toArray() : null,
+                countChanges ? inserted : -1L,
+                countChanges ? updated : -1L,
+                modified
+        );
+        chunkSizes.clear();
+        chunkNanos.clear();
+        generatedKeys.clear();
+        inserted = 0;
+        updated = 0;
+        modified = 0;
+        return batchResult;
+    }
+}
@@ -37,11 +37,11 @@ public abstract class AbstractFilteredStatement extends AbstractSQLStatement {
             addAux(clause.getParameter());
         }
         if (nrOfWhereClauses == 0) {
-            stat += " WHERE ";
+            append(" WHERE ");
         } else {
-            stat += " AND ";
+            append(" AND ");
         }
-        stat += clause.getClause();
+        append(clause.getClause());
         nrOfWhereClauses++;
     }
 
@@ -13,6 +13,9 @@ import be.ugent.caagt.dao.AnswerNotUnique;
 import be.ugent.caagt.dao.DataAccessException;
 import be.ugent.caagt.dao.NotFound;
 
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.sql.Array;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -22,6 +25,11 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Common super class for query statements
@@ -43,13 +51,23 @@ abstract class AbstractQueryStatement extends AbstractFilteredStatement {
         super(stat, context);
     }
 
+    /**
+     * Freezes this query into a template that can be executed repeatedly with different values
+     * for its slots.
+     * @see Slot
+     */
+    public QueryTemplate template() {
+        return new QueryTemplate(this);
+    }
+
     /**
      * Return the query result as a single int, or 0 when no result is returned.
      *
      * @throws AnswerNotUnique when the query resulted in more than one row
      */
     public int getInt() throws DataAccessException {
-        try (PreparedStatement ps = prepareStatement()) {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
             initParameters(ps);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -74,7 +92,8 @@ abstract class AbstractQueryStatement extends AbstractFilteredStatement {
      * @throws AnswerNotUnique when the query resulted in more than one row
      */
     public OptionalInt findInt() throws DataAccessException {
-        try (PreparedStatement ps = prepareStatement()) {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
             initParameters(ps);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -99,7 +118,8 @@ abstract class AbstractQueryStatement extends AbstractFilteredStatement {
      * @throws AnswerNotUnique when the query resulted in more than one row
      */
     public double getDouble() throws DataAccessException {
-        try (PreparedStatement ps = prepareStatement()) {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
             initParameters(ps);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -124,7 +144,8 @@ abstract class AbstractQueryStatement extends AbstractFilteredStatement {
      * @throws AnswerNotUnique when the query resulted in more than one row
      */
     public OptionalDouble findDouble() throws DataAccessException {
-        try (PreparedStatement ps = prepareStatement()) {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
             initParameters(ps);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -147,7 +168,8 @@ abstract class AbstractQueryStatement extends AbstractFilteredStatement {
      * Return the query result as a single boolean, or false if no result was returned.
      */
     public boolean getBoolean() throws DataAccessException {
-        try (PreparedStatement ps = prepareStatement()) {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
             initParameters(ps);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -259,7 +281,8 @@ abstract class AbstractQueryStatement extends AbstractFilteredStatement {
      * @throws AnswerNotUnique when the query resulted in more than one row
      */
     public <U> U getObject(ResultSetConverter<U> converter) throws DataAccessException {
-        try (PreparedStatement ps = prepareStatement()) {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
             initParameters(ps);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -283,7 +306,8 @@ abstract class AbstractQueryStatement extends AbstractFilteredStatement {
      * method if none of the 'get'-methods in this class suits their needs.
      */
     public <U> U convert(ResultSetConverter<U> converter) {
-        try (PreparedStatement ps = prepareStatement()) {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
             initParameters(ps);
             try (ResultSet rs = ps.executeQuery()) {
                 return converter.convert(rs);
@@ -300,7 +324,8 @@ abstract class AbstractQueryStatement extends AbstractFilteredStatement {
      * @throws NotFound        when the query result was empty
      */
     public <U> U getOneObject(ResultSetConverter<U> converter) throws DataAccessException {
-        try (PreparedStatement ps = prepareStatement()) {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
             initParameters(ps);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -325,7 +350,8 @@ abstract class AbstractQueryStatement extends AbstractFilteredStatement {
      * @throws AnswerNotUnique when the query resulted in more than one row
      */
     public <U> Optional<U> findObject(ResultSetConverter<U> converter) throws DataAccessException {
-        try (PreparedStatement ps = prepareStatement()) {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
             initParameters(ps);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -349,7 +375,8 @@ abstract class AbstractQueryStatement extends AbstractFilteredStatement {
      * Return a list of objects as the result of a query.
      */
     public <U> List<U> getList(ResultSetConverter<U> rsc) throws DataAccessException {
-        try (PreparedStatement ps = prepareStatement()) {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
             initParameters(ps);
             try (ResultSet rs = ps.executeQuery()) {
                 List<U> list = new ArrayList<>();
@@ -364,6 +391,226 @@ abstract class AbstractQueryStatement extends AbstractFilteredStatement {
 
     }
 
+    /**
+     * Return the query result by column instead of by row. Numeric (decimal) columns are returned as
+     * string columns, in their exact text form.
+     * @see ColumnarResult
+     */
+    public ColumnarResult getColumns() throws DataAccessException {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
+            initParameters(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                return ColumnarResult.read(rs);
+            }
+        } catch (SQLException ex) {
+            throw BaseDAO.convert(ex);
+        }
+    }
+
+    /**
+     * Return the first column of the query result as an array of ints, without boxing.
+     * Null values are returned as 0.
+     */
+    public int[] getIntArray() throws DataAccessException {
+        return getIntArray(1);
+    }
+
+    /**
+     * Return the given column (starting from 1) of the query result as an array of ints, without boxing.
+     * Null values are returned as 0.
+     */
+    public int[] getIntArray(int column) throws DataAccessException {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
+            initParameters(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                IntArrayBuilder builder = new IntArrayBuilder();
+                while (rs.next()) {
+                    builder.add(rs.getInt(column));
+                }
+                return builder.toArray();
+            }
+        } catch (SQLException ex) {
+            throw BaseDAO.convert(ex);
+        }
+    }
+
+    /**
+     * Return the first column of the query result as an array of longs, without boxing.
+     * Null values are returned as 0.
+     */
+    public long[] getLongArray() throws DataAccessException {
+        return getLongArray(1);
+    }
+
+    /**
+     * Return the given column (starting from 1) of the query result as an array of longs, without boxing.
+     * Null values are returned as 0.
+     */
+    public long[] getLongArray(int column) throws DataAccessException {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
+            initParameters(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                LongArrayBuilder builder = new LongArrayBuilder();
+                while (rs.next()) {
+                    builder.add(rs.getLong(column));
+                }
+                return builder.toArray();
+            }
+        } catch (SQLException ex) {
+            throw BaseDAO.convert(ex);
+        }
+    }
+
+    /**
+     * Return the first column of the query result as an array of doubles, without boxing.
+     * Null values are returned as 0.0.
+     */
+    public double[] getDoubleArray() throws DataAccessException {
+        return getDoubleArray(1);
+    }
+
+    /**
+     * Return the given column (starting from 1) of the query result as an array of doubles, without boxing.
+     * Null values are returned as 0.0.
+     */
+    public double[] getDoubleArray(int column) throws DataAccessException {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
+            initParameters(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                DoubleArrayBuilder builder = new DoubleArrayBuilder();
+                while (rs.next()) {
+                    builder.add(rs.getDouble(column));
+                }
+                return builder.toArray();
+            }
+        } catch (SQLException ex) {
+            throw BaseDAO.convert(ex);
+        }
+    }
+
+    /**
+     * Return the result of a query as a stream of objects. Rows are fetched from the database in blocks
+     * and converted only when the stream is consumed, so that memory use does not depend on the size of the result.
+     * The stream must be closed after use (e.g., with try-with-resources), unless it is consumed completely.
+     * <p>Uses a server side cursor, which requires a transaction. When the context is in auto commit mode,
+     * a transaction is started and committed when the stream is closed.</p>
+     *
+     * @see BaseDAC#getFetchSize()
+     */
+    public <U> Stream<U> getStream(ResultSetConverter<U> rsc) throws DataAccessException {
+        return getStream(rsc, context.getFetchSize());
+    }
+
+    /**
+     * As {@link #getStream(ResultSetConverter)}, but with the given number of rows fetched at a time.
+     */
+    public <U> Stream<U> getStream(ResultSetConverter<U> rsc, int fetchSize) throws DataAccessException {
+        try {
+            return new Cursor(this, fetchSize).stream(rsc);
+        } catch (SQLException ex) {
+            throw BaseDAO.convert(ex);
+        }
+    }
+
+    /**
+     * Return the result of a query as a publisher for reactive streams. Rows are fetched from the database
+     * only when the subscriber requests them, in blocks whose size follows the demand of the subscriber
+     * (but is never larger than {@link BaseDAC#getFetchSize()}). The query is executed separately for every subscriber.
+     * <p>Signals are sent on the thread that calls {@code request} and the database connection is used
+     * from that thread. As with {@link #getStream}, this uses a server side cursor and a transaction is started
+     * if none is active. The cursor is closed when the last row has been sent, on error, or when the subscription
+     * is cancelled.</p>
+     */
+    public <U> Flow.Publisher<U> getPublisher(ResultSetConverter<U> rsc) {
+        return new CursorPublisher<>(this, rsc, context.getFetchSize());
+    }
+
+    /**
+     * Pass the result of a query to the consumer in chunks of the given size (the last chunk may be smaller).
+     * Rows are fetched from the database one chunk at a time, so that memory use does not depend on the size
+     * of the result. The consumer is passed the same (unmodifiable) list object every time, which is emptied
+     * and refilled after each call, and hence must not be retained.
+     * <p>As with {@link #getStream}, this uses a server side cursor and a transaction is started if none is active.</p>
+     */
+    public <U> void processInChunks(int chunkSize, ResultSetConverter<U> rsc, Consumer<List<U>> consumer)
+            throws DataAccessException {
+        processInChunks(chunkSize, rsc, consumer, false);
+    }
+
+    /**
+     * As {@link #processInChunks(int, ResultSetConverter, Consumer)}. When overlap is true, the next chunk
+     * is fetched and converted on a separate thread while the consumer processes the current one. Two list
+     * objects are then used alternately. The consumer itself is always called on the current thread.
+     * Statements executed by the consumer use the same connection as the fetch and are serialized with it by
+     * the driver.
+     */
+    public <U> void processInChunks(int chunkSize, ResultSetConverter<U> rsc, Consumer<List<U>> consumer,
+                                    boolean overlap) throws DataAccessException {
+        try (Cursor cursor = new Cursor(this, chunkSize)) {
+            cursor.processInChunks(chunkSize, rsc, consumer, overlap);
+        } catch (SQLException ex) {
+            throw BaseDAO.convert(ex);
+        }
+    }
+
+    /**
+     * Export the result of this query in the given format, using the COPY command of PostgreSQL.
+     * Rows are written to the output stream as they are received from the database, without being
+     * converted into Java objects. Parameters (or the values bound to the slots of a template) are
+     * included into the query as SQL literals.
+     *
+     * @return the number of rows exported
+     */
+    public long copyTo(OutputStream out, CopyFormat format) throws DataAccessException {
+        return CopyExport.copyOut(context, CopyExport.copyStatement(getStatement(), getBoundParameters(), format),
+                (buffer, length) -> out.write(buffer, 0, length));
+    }
+
+    /**
+     * As {@link #copyTo(OutputStream, CopyFormat)}, but writes to a channel.
+     */
+    public long copyTo(WritableByteChannel channel, CopyFormat format) throws DataAccessException {
+        return CopyExport.copyOut(context, CopyExport.copyStatement(getStatement(), getBoundParameters(), format),
+                (buffer, length) -> {
+                    ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, length);
+                    while (byteBuffer.hasRemaining()) {
+                        channel.write(byteBuffer);
+                    }
+                });
+    }
+
+    /**
+     * Asynchronous version of {@link #getList(ResultSetConverter)}.
+     * @see BaseDAC#async(Supplier)
+     */
+    public <U> CompletableFuture<List<U>> getListAsync(ResultSetConverter<U> rsc) {
+        AbstractQueryStatement statement = snapshot();
+        return context.async(() -> statement.getList(rsc));
+    }
+
+    /**
+     * Asynchronous version of {@link #getOneObject(ResultSetConverter)}.
+     * @see BaseDAC#async(Supplier)
+     */
+    public <U> CompletableFuture<U> getOneObjectAsync(ResultSetConverter<U> converter) {
+        AbstractQueryStatement statement = snapshot();
+        return context.async(() -> statement.getOneObject(converter));
+    }
+
+    /**
+     * A statement with the same SQL text and parameters as this one, which is not affected when values are
+     * bound to this statement afterwards. Used by asynchronous operations, which may run after the call that
+     * submitted them has returned. The result has the same class as this statement. Statements are immutable,
+     * hence this implementation returns the statement itself.
+     */
+    AbstractQueryStatement snapshot() {
+        return this;
+    }
+
     public LocalDateTime getLocalDateTime() {
         return getObject(ResultSetConverter.FIRST_LOCAL_DATE_TIME);
     }
@@ -417,7 +664,8 @@ abstract class AbstractQueryStatement extends AbstractFilteredStatement {
      * so it remains useful to invoke this getter with ordered queries.
      */
     public <K, V> Map<K, V> getMap(ResultSetConverter<K> keyConverter, ResultSetConverter<V> valueConverter) {
-        try (PreparedStatement ps = prepareStatement()) {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
             initParameters(ps);
             try (ResultSet rs = ps.executeQuery()) {
                 Map<K, V> result = new LinkedHashMap<>();
@@ -443,7 +691,8 @@ abstract class AbstractQueryStatement extends AbstractFilteredStatement {
      * key is determined by the key converter.
      */
     public <K, V> void processMap(Map<K, V> map, ResultSetConverter<K> keyConverter, ResultSetProcessor<V> valueProcessor) {
-        try (PreparedStatement ps = prepareStatement()) {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
             initParameters(ps);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
@@ -460,13 +709,134 @@ abstract class AbstractQueryStatement extends AbstractFilteredStatement {
         processMap(map, ResultSetConverter.FIRST_INTEGER, valueProcessor);
     }
 
+    /**
+     * Returns the current result set as a map with int keys, taken from the first column, which does not box its keys.
+     * The iteration order on the map is the insertion order, so it remains useful to invoke this getter with
+     * ordered queries.
+     */
+    public <V> IntObjectMap<V> getIntMap(ResultSetConverter<V> valueConverter) {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
+            initParameters(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                IntObjectMap<V> result = new IntObjectMap<>();
+                while (rs.next()) {
+                    result.put(rs.getInt(1), valueConverter.convert(rs));
+                }
+                return result;
+            }
+        } catch (SQLException ex) {
+            throw BaseDAO.convert(ex);
+        }
+    }
+
+    /**
+     * Returns the current result set as a map with long keys, taken from the first column, which does not box its keys.
+     * The iteration order on the map is the insertion order, so it remains useful to invoke this getter with
+     * ordered queries.
+     */
+    public <V> LongObjectMap<V> getLongMap(ResultSetConverter<V> valueConverter) {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
+            initParameters(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                LongObjectMap<V> result = new LongObjectMap<>();
+                while (rs.next()) {
+                    result.put(rs.getLong(1), valueConverter.convert(rs));
+                }
+                return result;
+            }
+        } catch (SQLException ex) {
+            throw BaseDAO.convert(ex);
+        }
+    }
+
+    /**
+     * Returns the current result set as a map with int keys, taken from the first column, and int values,
+     * taken from the second column. Neither keys nor values are boxed. The iteration order on the map is the
+     * insertion order.
+     */
+    public IntIntMap getIntIntMap() {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
+            initParameters(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                IntIntMap result = new IntIntMap();
+                while (rs.next()) {
+                    result.put(rs.getInt(1), rs.getInt(2));
+                }
+                return result;
+            }
+        } catch (SQLException ex) {
+            throw BaseDAO.convert(ex);
+        }
+    }
+
+    /**
+     * Returns the current result set as a map with int keys, taken from the first column, and double values,
+     * taken from the second column. Neither keys nor values are boxed. The iteration order on the map is the
+     * insertion order.
+     */
+    public IntDoubleMap getIntDoubleMap() {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
+            initParameters(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                IntDoubleMap result = new IntDoubleMap();
+                while (rs.next()) {
+                    result.put(rs.getInt(1), rs.getDouble(2));
+                }
+                return result;
+            }
+        } catch (SQLException ex) {
+            throw BaseDAO.convert(ex);
+        }
+    }
+
+    /**
+     * As {@link #processMap(Map, ResultSetProcessor)}, for a map generated by {@link #getIntMap}. The key is taken
+     * from the first column of the result.
+     */
+    public <V> void processMap(IntObjectMap<V> map, ResultSetProcessor<V> valueProcessor) {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
+            initParameters(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    valueProcessor.process(map.get(rs.getInt(1)), rs);
+                }
+            }
+        } catch (SQLException ex) {
+            throw BaseDAO.convert(ex);
+        }
+    }
+
+    /**
+     * As {@link #processMap(Map, ResultSetProcessor)}, for a map generated by {@link #getLongMap}. The key is taken
+     * from the first column of the result.
+     */
+    public <V> void processMap(LongObjectMap<V> map, ResultSetProcessor<V> valueProcessor) {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
+            initParameters(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    valueProcessor.process(map.get(rs.getLong(1)), rs);
+                }
+            }
+        } catch (SQLException ex) {
+            throw BaseDAO.convert(ex);
+        }
+    }
+
 
     /**
      * Processes the result of the current query without returning a result. The given value processor
      * is applied to the destination parameter.
      */
     public <V> void process(V destination, ResultSetProcessor<V> valueProcessor) {
-        try (PreparedStatement ps = prepareStatement()) {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
             initParameters(ps);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
@@ -483,7 +853,8 @@ abstract class AbstractQueryStatement extends AbstractFilteredStatement {
      * consumer is called for every row in the result set.
      */
     public void process(ResultSetConsumer consumer) {
-        try (PreparedStatement ps = prepareStatement()) {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
             initParameters(ps);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
@@ -508,7 +879,8 @@ abstract class AbstractQueryStatement extends AbstractFilteredStatement {
      * @throws AnswerNotUnique when the query resulted in more than one row
      */
     public byte[] getBytes() throws DataAccessException {
-        try (PreparedStatement ps = prepareStatement()) {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
             initParameters(ps);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -532,7 +904,11 @@ abstract class AbstractQueryStatement extends AbstractFilteredStatement {
     }
 
     public int[] getArrayOfInt() {
-        return BoxUtils.unboxArray(getArrayOfInteger());
+        return getObject(rs -> BaseDAO.getArrayOfInt(rs, 1));
+    }
+
+    public long[] getArrayOfLong() {
+        return getObject(rs -> BaseDAO.getArrayOfLong(rs, 1));
     }
 
     public Integer[] getArrayOfInteger() {
@@ -540,7 +916,7 @@ abstract class AbstractQueryStatement extends AbstractFilteredStatement {
     }
 
     public double[] getArrayOfDouble() {
-        return BoxUtils.unboxArray(getArrayOfWrappedDouble());
+        return getObject(rs -> BaseDAO.getArrayOfDouble(rs, 1));
     }
 
     public Double[] getArrayOfWrappedDouble() {
@@ -556,7 +932,7 @@ abstract class AbstractQueryStatement extends AbstractFilteredStatement {
     }
 
     public int[][] get2DimArrayOfInt() {
-        return BoxUtils.unboxArray(get2DimArrayOfInteger());
+        return getObject(rs -> BaseDAO.get2DimArrayOfInt(rs, 1));
     }
 
     public Double[][] get2DimArrayOfWrappedDouble() {
@@ -564,7 +940,7 @@ abstract class AbstractQueryStatement extends AbstractFilteredStatement {
     }
 
     public double[][] get2DimArrayOfDouble() {
-        return BoxUtils.unboxArray(get2DimArrayOfWrappedDouble());
+        return getObject(rs -> BaseDAO.get2DimArrayOfDouble(rs, 1));
     }
 
     public static class EnumRSConverter<E extends Enum<E>> implements ResultSetConverter<E> {
@@ -576,7 +952,7 @@ abstract class AbstractQueryStatement extends AbstractFilteredStatement {
 
         @Override
         public E convert(ResultSet rs) throws SQLException {
-            return Enum.valueOf(enumClass, rs.getString(1));
+            return EnumParameter.valueOf(enumClass, rs.getString(1));
         }
     }
 
@@ -13,17 +13,18 @@ import be.ugent.caagt.dao.DataAccessException;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Abstract super class for all types of sql statements
  */
-abstract class AbstractSQLStatement {
+abstract class AbstractSQLStatement implements Cloneable {
 
-    protected String stat;
+    // SQL text, kept as a list of fragments that is only rendered when the statement is executed
+    private PersistentList<String> fragments;
 
-    protected List<Parameter> params;
+    private String rendered; // memoized, see getStatement
+
+    protected PersistentList<Parameter> params;
 
     protected BaseDAC context;
 
@@ -31,8 +32,8 @@ abstract class AbstractSQLStatement {
      * Create a new object of this type.
      */
     protected AbstractSQLStatement(String stat, BaseDAC context) {
-        this.stat = stat;
-        this.params = new ArrayList<>();
+        this.fragments = PersistentList.<String>empty().append(stat);
+        this.params = PersistentList.empty();
         this.context = context;
     }
 
@@ -48,19 +49,100 @@ abstract class AbstractSQLStatement {
      */
     protected void copyAux (AbstractSQLStatement src) {
         this.context = src.context;
-        this.stat = src.stat;
-        this.params = new ArrayList<>(src.params); // copy constructor of ArrayList gives 'unchecked assignment' warning
+        this.fragments = src.fragments; // immutable, hence can be shared
+        this.rendered = src.rendered;
+        this.params = src.params; // immutable, hence can be shared
+    }
+
+    /**
+     * Returns a copy of the given statement which is executed on the given context instead.
+     * Statements are immutable, so a shallow copy suffices.
+     */
+    @SuppressWarnings("unchecked")
+    static <S extends AbstractSQLStatement> S withContext(S statement, BaseDAC context) {
+        try {
+            S result = (S) statement.clone();
+            result.context = context;
+            return result;
+        } catch (CloneNotSupportedException ex) {
+            throw new IllegalStateException(ex); // does not happen
+        }
+    }
+
+    /**
+     * Appends a fragment to the SQL text of this statement.
+     */
+    protected void append(String fragment) {
+        this.fragments = fragments.append(fragment);
+        this.rendered = null;
+    }
+
+    /**
+     * Appends all fragments of the given list to the SQL text of this statement.
+     */
+    protected void appendAll(PersistentList<String> list) {
+        this.fragments = fragments.appendAll(list);
+        this.rendered = null;
+    }
+
+    protected PersistentList<String> getFragments() {
+        return fragments;
+    }
+
+    /**
+     * The SQL text of this statement. Rendered on first use.
+     */
+    protected String getStatement() {
+        String result = rendered;
+        if (result == null) {
+            result = render(fragments);
+            rendered = result;
+        }
+        return result;
+    }
+
+    /**
+     * Concatenates the given fragments into a single string, without intermediate copies.
+     */
+    static String render(PersistentList<String> fragments) {
+        int length = 0;
+        for (String fragment : fragments) {
+            length += fragment.length();
+        }
+        StringBuilder builder = new StringBuilder(length);
+        for (String fragment : fragments) {
+            builder.append(fragment);
+        }
+        return builder.toString();
     }
 
     protected void addAux (Parameter parameter) {
-        this.params.add(parameter);
+        this.params = params.append(parameter);
+    }
+
+    /**
+     * Number of parameters expected by the statement, as determined by the parameter count check
+     * of the context.
+     */
+    private int getExpectedParameterCount(PreparedStatement ps) throws SQLException {
+        return switch (context.getParameterCountCheck()) {
+            case PARSED -> SqlPlaceholders.count(getStatement());
+            case METADATA -> ps.getParameterMetaData().getParameterCount();
+        };
     }
 
     //
     protected void initParameters(PreparedStatement ps) throws SQLException {
-        if (params.size() != ps.getParameterMetaData().getParameterCount()) {
+        if (params.size() != getExpectedParameterCount(ps)) {
             throw new IllegalArgumentException("Incorrect nr of parameters");
         }
+        setParameters(ps);
+    }
+
+    /**
+     * Fills in all parameters of the prepared statement.
+     */
+    protected void setParameters(PreparedStatement ps) throws SQLException {
         int index = 1;
         for (Parameter param : params) {
             param.setParameter(ps, index);
@@ -68,15 +150,28 @@ abstract class AbstractSQLStatement {
         }
     }
 
-    protected PreparedStatement prepareStatement() throws SQLException {
-        return context.getConnection().prepareStatement(stat);
+    /**
+     * The parameters of this statement, as they would be filled in by {@link #setParameters}. Overridden
+     * by templates, which replace their slots by the values that are currently bound to them.
+     */
+    PersistentList<Parameter> getBoundParameters() {
+        return params;
+    }
+
+    /**
+     * Returns a prepared statement for this statement from the statement cache of the context.
+     * Close the result to return the prepared statement to the cache.
+     */
+    protected CachedStatement prepareStatement() throws SQLException {
+        return context.prepareStatement(getStatement());
     }
 
     /**
      * Execute an update statement after filling in all parameters
      */
     protected void executeUpdate() throws DataAccessException {
-        try (PreparedStatement ps = prepareStatement()) {
+        try (CachedStatement cs = prepareStatement()) {
+            PreparedStatement ps = cs.get();
             initParameters(ps);
             ps.executeUpdate();
         } catch (SQLException ex) {
@@ -84,11 +179,4 @@ abstract class AbstractSQLStatement {
         }
     }
 
-    private static long id = 0;
-
-    protected static String getUniqueId () {
-        id ++; // should never overflow
-        return "__daohelper__" + id;
-    }
-
 }
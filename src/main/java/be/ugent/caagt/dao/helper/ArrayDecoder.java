@@ -0,0 +1,425 @@
+/*
+ * ArrayDecoder.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Decodes PostgreSQL arrays of numbers directly into arrays of primitives, without creating the array of
+ * boxed values that {@link java.sql.Array#getArray()} returns. The PostgreSQL driver returns the raw value of a
+ * column (in text or in binary format) from {@link ResultSet#getBytes}, which is decoded here. Element types that
+ * are not recognized (e.g., {@code numeric}) are retrieved with {@link ResultSet#getArray} instead. In text format,
+ * the element type is only determined when an element cannot be parsed.
+ * <p>Multidimensional arrays are decoded into a single flat array, in row major order.</p>
+ */
+final class ArrayDecoder {
+
+    private static final int INT2_OID = 21;
+    private static final int INT4_OID = 23;
+    private static final int INT8_OID = 20;
+    private static final int FLOAT4_OID = 700;
+    private static final int FLOAT8_OID = 701;
+
+    private ArrayDecoder() {
+    }
+
+    // receives the decoded elements
+    private abstract static class Elements {
+
+        abstract boolean supports(int oid);
+
+        abstract void allocate(int size);
+
+        abstract void binary(int index, ByteBuffer buffer, int oid) throws SQLException;
+
+        abstract void text(int index, byte[] bytes, int from, int to) throws SQLException;
+
+        abstract void number(int index, Number value) throws SQLException;
+    }
+
+    private static final class IntElements extends Elements {
+        int[] array;
+
+        @Override
+        boolean supports(int oid) {
+            return oid == INT4_OID || oid == INT2_OID || oid == INT8_OID;
+        }
+
+        @Override
+        void allocate(int size) {
+            array = new int[size];
+        }
+
+        @Override
+        void binary(int index, ByteBuffer buffer, int oid) throws SQLException {
+            array[index] = toInt(binaryLong(buffer, oid));
+        }
+
+        @Override
+        void text(int index, byte[] bytes, int from, int to) throws SQLException {
+            array[index] = toInt(parseLong(bytes, from, to));
+        }
+
+        @Override
+        void number(int index, Number value) {
+            array[index] = value.intValue();
+        }
+    }
+
+    private static final class LongElements extends Elements {
+        long[] array;
+
+        @Override
+        boolean supports(int oid) {
+            return oid == INT8_OID || oid == INT4_OID || oid == INT2_OID;
+        }
+
+        @Override
+        void allocate(int size) {
+            array = new long[size];
+        }
+
+        @Override
+        void binary(int index, ByteBuffer buffer, int oid) {
+            array[index] = binaryLong(buffer, oid);
+        }
+
+        @Override
+        void text(int index, byte[] bytes, int from, int to) throws SQLException {
+            array[index] = parseLong(bytes, from, to);
+        }
+
+        @Override
+        void number(int index, Number value) {
+            array[index] = value.longValue();
+        }
+    }
+
+    private static final class DoubleElements extends Elements {
+        double[] array;
+
+        @Override
+        boolean supports(int oid) {
+            return oid == FLOAT8_OID || oid == FLOAT4_OID || oid == INT4_OID || oid == INT2_OID || oid == INT8_OID;
+        }
+
+        @Override
+        void allocate(int size) {
+            array = new double[size];
+        }
+
+        @Override
+        void binary(int index, ByteBuffer buffer, int oid) {
+            array[index] = switch (oid) {
+                case FLOAT8_OID -> buffer.getDouble();
+                case FLOAT4_OID -> buffer.getFloat();
+                default -> binaryLong(buffer, oid);
+            };
+        }
+
+        @Override
+        void text(int index, byte[] bytes, int from, int to) throws SQLException {
+            try {
+                array[index] = Double.parseDouble(new String(bytes, from, to - from, StandardCharsets.ISO_8859_1));
+            } catch (NumberFormatException ex) {
+                throw invalidElement(bytes, from, to);
+            }
+        }
+
+        @Override
+        void number(int index, Number value) {
+            array[index] = value.doubleValue();
+        }
+    }
+
+    private static long binaryLong(ByteBuffer buffer, int oid) {
+        return switch (oid) {
+            case INT8_OID -> buffer.getLong();
+            case INT2_OID -> buffer.getShort();
+            default -> buffer.getInt();
+        };
+    }
+
+    private static int toInt(long value) throws SQLException {
+        if ((int) value != value) {
+            throw new SQLException("Array element " + value + " does not fit into an int", "22003");
+        }
+        return (int) value;
+    }
+
+    private static SQLException invalidElement(byte[] bytes, int from, int to) {
+        return new SQLException("Invalid array element: " + new String(bytes, from, to - from, StandardCharsets.UTF_8), "22P02");
+    }
+
+    private static SQLException nullElement() {
+        return new SQLException("Array contains null elements", "22004");
+    }
+
+    private static long parseLong(byte[] bytes, int from, int to) throws SQLException {
+        int pos = from;
+        boolean negative = pos < to && bytes[pos] == '-';
+        if (negative || pos < to && bytes[pos] == '+') {
+            pos++;
+        }
+        if (pos == to) {
+            throw invalidElement(bytes, from, to);
+        }
+        long result = 0; // accumulated negatively, to allow Long.MIN_VALUE
+        try {
+            for (; pos < to; pos++) {
+                int digit = bytes[pos] - '0';
+                if (digit < 0 || digit > 9) {
+                    throw invalidElement(bytes, from, to);
+                }
+                result = Math.subtractExact(Math.multiplyExact(result, 10), digit);
+            }
+            return negative ? result : Math.negateExact(result);
+        } catch (ArithmeticException ex) {
+            throw new SQLException("Array element does not fit into a long", "22003");
+        }
+    }
+
+    /**
+     * Decodes the array in the given column into the given elements. Returns the dimensions of the array
+     * (an empty array for an empty array), or null when the column is null.
+     */
+    private static int[] decode(ResultSet rs, int index, Elements elements) throws SQLException {
+        byte[] bytes = rs.getBytes(index);
+        if (bytes == null) {
+            return null;
+        }
+        int[] dims;
+        if (bytes.length > 0 && (bytes[0] == '{' || bytes[0] == '[')) {
+            try {
+                dims = decodeText(bytes, elements);
+            } catch (SQLException ex) {
+                if (isNumericArray(rs.getMetaData().getColumnTypeName(index))) {
+                    throw ex;
+                }
+                dims = null; // e.g., {1.5} as numeric[]
+            }
+        } else {
+            dims = decodeBinary(bytes, elements);
+        }
+        return dims == null ? decodeArray(rs.getArray(index), elements) : dims;
+    }
+
+    // binary format: number of dimensions, null flag, element type, size and lower bound of every dimension,
+    // and then the elements, each preceded by its length (-1 for null)
+    private static int[] decodeBinary(byte[] bytes, Elements elements) throws SQLException {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            int[] dims = new int[buffer.getInt()];
+            buffer.getInt(); // null flag
+            int oid = buffer.getInt();
+            if (!elements.supports(oid)) {
+                return null;
+            }
+            int size = dims.length == 0 ? 0 : 1;
+            for (int d = 0; d < dims.length; d++) {
+                dims[d] = buffer.getInt();
+                buffer.getInt(); // lower bound
+                size = Math.multiplyExact(size, dims[d]);
+            }
+            elements.allocate(size);
+            for (int i = 0; i < size; i++) {
+                if (buffer.getInt() < 0) {
+                    throw nullElement();
+                }
+                elements.binary(i, buffer, oid);
+            }
+            return dims;
+        } catch (BufferUnderflowException | ArithmeticException | NegativeArraySizeException ex) {
+            throw new SQLException("Invalid binary array value", "22P03");
+        }
+    }
+
+    // text format, e.g., {{1,2},{3,4}}, optionally preceded by the bounds of the dimensions, e.g., [0:1]={1,2}
+    private static int[] decodeText(byte[] bytes, Elements elements) throws SQLException {
+        int pos = 0;
+        if (bytes[0] == '[') {
+            while (pos < bytes.length && bytes[pos] != '=') {
+                pos++;
+            }
+            pos++;
+        }
+        int ndims = 0;
+        while (pos + ndims < bytes.length && bytes[pos + ndims] == '{') {
+            ndims++;
+        }
+        if (ndims == 0) {
+            throw new SQLException("Invalid array value", "22P02");
+        } else if (ndims == 1 && pos + 1 < bytes.length && bytes[pos + 1] == '}') {
+            elements.allocate(0);
+            return new int[0];
+        }
+        // first pass: find the elements and the number of opening braces at every depth
+        IntArrayBuilder bounds = new IntArrayBuilder(64);
+        int[] opens = new int[ndims];
+        int depth = 0;
+        while (pos < bytes.length) {
+            byte b = bytes[pos];
+            if (b == '{') {
+                if (depth == ndims) {
+                    throw new SQLException("Invalid array value", "22P02");
+                }
+                opens[depth]++;
+                depth++;
+                pos++;
+            } else if (b == '}') {
+                depth--;
+                pos++;
+            } else if (b == ',') {
+                pos++;
+            } else if (b == '"') {
+                int start = ++pos;
+                while (pos < bytes.length && bytes[pos] != '"') {
+                    pos += bytes[pos] == '\\' ? 2 : 1;
+                }
+                bounds.add(start);
+                bounds.add(pos);
+                pos++;
+            } else {
+                int start = pos;
+                while (pos < bytes.length && bytes[pos] != ',' && bytes[pos] != '}') {
+                    pos++;
+                }
+                if (pos - start == 4 && new String(bytes, start, 4, StandardCharsets.ISO_8859_1).equalsIgnoreCase("NULL")) {
+                    throw nullElement();
+                }
+                bounds.add(start);
+                bounds.add(pos);
+            }
+        }
+        int size = bounds.size() / 2;
+        int[] dims = new int[ndims];
+        for (int d = 0; d < ndims - 1; d++) {
+            dims[d] = opens[d + 1] / opens[d];
+        }
+        dims[ndims - 1] = size / opens[ndims - 1];
+        // second pass: convert the elements
+        int[] positions = bounds.toArray();
+        elements.allocate(size);
+        for (int i = 0; i < size; i++) {
+            elements.text(i, bytes, positions[2 * i], positions[2 * i + 1]);
+        }
+        return dims;
+    }
+
+    // whether the type name (as reported by the driver) denotes an array type that is decoded here
+    private static boolean isNumericArray(String typeName) {
+        return typeName != null && switch (typeName) {
+            case "_int2", "_int4", "_int8", "_float4", "_float8" -> true;
+            default -> false;
+        };
+    }
+
+    // fallback for element types that are not recognized
+    private static int[] decodeArray(Array array, Elements elements) throws SQLException {
+        Object[] values = (Object[]) array.getArray();
+        if (values.length > 0 && values[0] instanceof Object[]) {
+            int cols = ((Object[]) values[0]).length;
+            elements.allocate(values.length * cols);
+            for (int i = 0; i < values.length; i++) {
+                Object[] row = (Object[]) values[i];
+                for (int j = 0; j < cols; j++) {
+                    elements.number(i * cols + j, number(row[j]));
+                }
+            }
+            return new int[]{values.length, cols};
+        } else {
+            elements.allocate(values.length);
+            for (int i = 0; i < values.length; i++) {
+                elements.number(i, number(values[i]));
+            }
+            return values.length == 0 ? new int[0] : new int[]{values.length};
+        }
+    }
+
+    private static Number number(Object value) throws SQLException {
+        if (value == null) {
+            throw nullElement();
+        } else if (value instanceof Number number) {
+            return number;
+        } else {
+            throw new SQLException("Array element is not a number: " + value, "42804");
+        }
+    }
+
+    private static void checkDimensions(int[] dims, int expected) throws SQLException {
+        if (dims.length != expected && dims.length != 0) {
+            throw new SQLException("Expected an array of dimension " + expected + " instead of " + dims.length, "2202E");
+        }
+    }
+
+    static int[] toIntArray(ResultSet rs, int index) throws SQLException {
+        IntElements elements = new IntElements();
+        int[] dims = decode(rs, index, elements);
+        if (dims == null) {
+            return null;
+        }
+        checkDimensions(dims, 1);
+        return elements.array;
+    }
+
+    static long[] toLongArray(ResultSet rs, int index) throws SQLException {
+        LongElements elements = new LongElements();
+        int[] dims = decode(rs, index, elements);
+        if (dims == null) {
+            return null;
+        }
+        checkDimensions(dims, 1);
+        return elements.array;
+    }
+
+    static double[] toDoubleArray(ResultSet rs, int index) throws SQLException {
+        DoubleElements elements = new DoubleElements();
+        int[] dims = decode(rs, index, elements);
+        if (dims == null) {
+            return null;
+        }
+        checkDimensions(dims, 1);
+        return elements.array;
+    }
+
+    static int[][] to2DimIntArray(ResultSet rs, int index) throws SQLException {
+        IntElements elements = new IntElements();
+        int[] dims = decode(rs, index, elements);
+        if (dims == null) {
+            return null;
+        }
+        checkDimensions(dims, 2);
+        int[][] result = new int[dims.length == 0 ? 0 : dims[0]][];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = Arrays.copyOfRange(elements.array, i * dims[1], (i + 1) * dims[1]);
+        }
+        return result;
+    }
+
+    static double[][] to2DimDoubleArray(ResultSet rs, int index) throws SQLException {
+        DoubleElements elements = new DoubleElements();
+        int[] dims = decode(rs, index, elements);
+        if (dims == null) {
+            return null;
+        }
+        checkDimensions(dims, 2);
+        double[][] result = new double[dims.length == 0 ? 0 : dims[0]][];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = Arrays.copyOfRange(elements.array, i * dims[1], (i + 1) * dims[1]);
+        }
+        return result;
+    }
+}
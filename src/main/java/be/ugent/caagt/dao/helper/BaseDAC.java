@@ -13,14 +13,35 @@ import be.ugent.caagt.dao.DACException;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 /**
  * Base class from which your data access context class should be derived.
  */
 public abstract class BaseDAC implements AutoCloseable {
 
+    /**
+     * Default value for {@link #getStatementCacheSize}
+     */
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+
+    /**
+     * Default value for {@link #getFetchSize}
+     */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
     private final Connection connection;
 
+    private StatementCache statementCache;
+
+    private SerialExecutor serialExecutor;
+
+    // held while a statement is executed on the connection, see lock()
+    private final ReentrantLock lock = new ReentrantLock();
+
     /**
      * Create a data access context which uses the given JDBC connection.
      */
@@ -32,10 +53,13 @@ public abstract class BaseDAC implements AutoCloseable {
      * Start a transaction on this context
      */
     public void begin() {
+        lock();
         try {
             connection.setAutoCommit(false);
         } catch (SQLException ex) {
             throw new DACException("Auto commit could not be disabled", ex);
+        } finally {
+            unlock();
         }
     }
 
@@ -43,10 +67,13 @@ public abstract class BaseDAC implements AutoCloseable {
      * Commit the current transaction
      */
     public void commit() {
+        lock();
         try {
             connection.commit();
         } catch (SQLException ex) {
             throw new DACException("Commit error", ex);
+        } finally {
+            unlock();
         }
     }
 
@@ -54,10 +81,13 @@ public abstract class BaseDAC implements AutoCloseable {
      * Roll back the current transaction
      */
     public void rollback() {
+        lock();
         try {
             connection.rollback();
         } catch (SQLException ex) {
             throw new DACException("Rollback error", ex);
+        } finally {
+            unlock();
         }
     }
 
@@ -66,10 +96,19 @@ public abstract class BaseDAC implements AutoCloseable {
      */
     public void close() {
         try {
-            connection.setAutoCommit(true);
-               // needed in case of connection pooling,
-               // also commits current transaction as a bonus, but we do not want to rely on this
-            connection.close();
+            try {
+                if (statementCache != null) {
+                    statementCache.close();
+                }
+            } finally {
+                try {
+                    connection.setAutoCommit(true);
+                    // needed in case of connection pooling,
+                    // also commits current transaction as a bonus, but we do not want to rely on this
+                } finally {
+                    connection.close(); // also when the connection was aborted
+                }
+            }
         } catch(SQLException ex){
             throw new DACException("Close error", ex);
         }
@@ -82,6 +121,122 @@ public abstract class BaseDAC implements AutoCloseable {
         return connection;
     }
 
+    /**
+     * Maximum number of prepared statements that are kept open by this context for reuse.
+     * Default implementation returns {@link #DEFAULT_STATEMENT_CACHE_SIZE}, but can be overridden by clients.
+     * Return 0 to disable caching.
+     */
+    protected int getStatementCacheSize() {
+        return DEFAULT_STATEMENT_CACHE_SIZE;
+    }
+
+    /**
+     * Number of rows fetched from the database at a time by queries that stream their results.
+     * Default implementation returns {@link #DEFAULT_FETCH_SIZE}, but can be overridden by clients.
+     */
+    protected int getFetchSize() {
+        return DEFAULT_FETCH_SIZE;
+    }
+
+    /**
+     * Executor on which asynchronous operations of this context are run. Default implementation uses
+     * virtual threads when the Java version supports them (21 and higher) and a shared pool of threads
+     * otherwise, but can be overridden by clients. Note that operations of the same context are
+     * always run one at a time.
+     */
+    protected Executor getExecutor() {
+        return SerialExecutor.defaultExecutor();
+    }
+
+    /**
+     * Run the given operation asynchronously. All asynchronous operations of this context are run one at a time,
+     * in the order in which they were submitted. Synchronous operations may be used while asynchronous operations
+     * are pending: each statement holds a lock on the connection while it is executed, so that statements
+     * never use the connection at the same time (but statements of different operations may be interleaved).
+     * Do not wait for an asynchronous operation of this context while processing the result of one of its
+     * queries (e.g., inside a converter), as this will never finish.
+     * @see #getExecutor()
+     */
+    public <T> CompletableFuture<T> async(Supplier<T> operation) {
+        return CompletableFuture.supplyAsync(operation, getSerialExecutor());
+    }
+
+    /**
+     * As {@link #async(Supplier)}, for an operation without a result.
+     */
+    public CompletableFuture<Void> async(Runnable operation) {
+        return CompletableFuture.runAsync(operation, getSerialExecutor());
+    }
+
+    private synchronized SerialExecutor getSerialExecutor() {
+        if (serialExecutor == null) {
+            serialExecutor = new SerialExecutor(getExecutor());
+        }
+        return serialExecutor;
+    }
+
+    /**
+     * Determines how the number of parameters of a statement is validated before execution.
+     * Default implementation returns {@link ParameterCountCheck#PARSED}, but can be overridden by clients,
+     * for example to use the stricter (but slower) {@link ParameterCountCheck#METADATA} while debugging.
+     */
+    protected ParameterCountCheck getParameterCountCheck() {
+        return ParameterCountCheck.PARSED;
+    }
+
+    synchronized StatementCache getStatementCache() {
+        if (statementCache == null) {
+            statementCache = new StatementCache(connection, getStatementCacheSize());
+        }
+        return statementCache;
+    }
+
+    /**
+     * Acquires the lock that guarantees that only one statement at a time is executed on the connection
+     * of this context. The lock is reentrant, so that statements can be nested (e.g., a query inside the
+     * converter of another query). Must be released by the same thread.
+     */
+    void lock() {
+        lock.lock();
+    }
+
+    /**
+     * Releases the lock acquired by {@link #lock()}.
+     */
+    void unlock() {
+        lock.unlock();
+    }
+
+    /**
+     * Returns a prepared statement for the given SQL, from the statement cache if possible.
+     * The statement must be returned to the cache by closing the result.
+     */
+    CachedStatement prepareStatement(String sql) throws SQLException {
+        return prepareStatement(sql, StatementCache.NO_KEYS);
+    }
+
+    /**
+     * Returns a prepared statement for the given SQL that returns the generated keys of the given column,
+     * or all generated keys when keys is {@link StatementCache#ALL_KEYS}. The lock of this context
+     * is held until the result is closed.
+     */
+    CachedStatement prepareStatement(String sql, String keys) throws SQLException {
+        lock();
+        try {
+            return getStatementCache().acquire(sql, keys, this);
+        } catch (SQLException | RuntimeException ex) {
+            unlock();
+            throw ex;
+        }
+    }
+
+    /**
+     * Hit, miss and eviction counters of the prepared statement cache of this context.
+     */
+    public StatementCacheStatistics getStatementCacheStatistics() {
+        return getStatementCache().getStatistics();
+    }
+
     /**
      * Provides translation of java enum class names to database enum types.
      * Default implementation converts to snake case, but can be overridden by clients.
@@ -95,6 +95,13 @@ public abstract class BaseDAO {
         return new InsertSQLStatement(table, context);
     }
 
+    /**
+     * Creates a bulk loader that inserts rows into the given table using COPY (PostgreSQL only)
+     */
+    public CopyLoader copyInto(String table) {
+        return new CopyLoader(table, context);
+    }
+
     /**
      * Creates an 'upsert' statement
      */
@@ -219,6 +226,86 @@ public abstract class BaseDAO {
         return value == null ? null : value.toInstant();
     }
 
+    /**
+     * Helper method to retrieve an array of ints from a result set, without boxing its elements. The corresponding
+     * database column must be a integer or smallint array without null elements.
+     */
+    public static int[] getArrayOfInt(ResultSet rs, String columnName) throws SQLException {
+        return ArrayDecoder.toIntArray(rs, rs.findColumn(columnName));
+    }
+
+    /**
+     * Helper method to retrieve an array of ints from a result set, without boxing its elements. The corresponding
+     * database column must be a integer or smallint array without null elements.
+     */
+    public static int[] getArrayOfInt(ResultSet rs, int index) throws SQLException {
+        return ArrayDecoder.toIntArray(rs, index);
+    }
+
+    /**
+     * Helper method to retrieve an array of longs from a result set, without boxing its elements. The corresponding
+     * database column must be a bigint, integer or smallint array without null elements.
+     */
+    public static long[] getArrayOfLong(ResultSet rs, String columnName) throws SQLException {
+        return ArrayDecoder.toLongArray(rs, rs.findColumn(columnName));
+    }
+
+    /**
+     * Helper method to retrieve an array of longs from a result set, without boxing its elements. The corresponding
+     * database column must be a bigint, integer or smallint array without null elements.
+     */
+    public static long[] getArrayOfLong(ResultSet rs, int index) throws SQLException {
+        return ArrayDecoder.toLongArray(rs, index);
+    }
+
+    /**
+     * Helper method to retrieve an array of doubles from a result set, without boxing its elements. The corresponding
+     * database column must be a double precision or real array (or an array of integers) without null elements.
+     */
+    public static double[] getArrayOfDouble(ResultSet rs, String columnName) throws SQLException {
+        return ArrayDecoder.toDoubleArray(rs, rs.findColumn(columnName));
+    }
+
+    /**
+     * Helper method to retrieve an array of doubles from a result set, without boxing its elements. The corresponding
+     * database column must be a double precision or real array (or an array of integers) without null elements.
+     */
+    public static double[] getArrayOfDouble(ResultSet rs, int index) throws SQLException {
+        return ArrayDecoder.toDoubleArray(rs, index);
+    }
+
+    /**
+     * Helper method to retrieve a 2-dimensional array of ints from a result set, without boxing its elements. The corresponding
+     * database column must be a 2-dimensional integer or smallint array without null elements.
+     */
+    public static int[][] get2DimArrayOfInt(ResultSet rs, String columnName) throws SQLException {
+        return ArrayDecoder.to2DimIntArray(rs, rs.findColumn(columnName));
+    }
+
+    /**
+     * Helper method to retrieve a 2-dimensional array of ints from a result set, without boxing its elements. The corresponding
+     * database column must be a 2-dimensional integer or smallint array without null elements.
+     */
+    public static int[][] get2DimArrayOfInt(ResultSet rs, int index) throws SQLException {
+        return ArrayDecoder.to2DimIntArray(rs, index);
+    }
+
+    /**
+     * Helper method to retrieve a 2-dimensional array of doubles from a result set, without boxing its elements. The corresponding
+     * database column must be a 2-dimensional double precision or real array without null elements.
+     */
+    public static double[][] get2DimArrayOfDouble(ResultSet rs, String columnName) throws SQLException {
+        return ArrayDecoder.to2DimDoubleArray(rs, rs.findColumn(columnName));
+    }
+
+    /**
+     * Helper method to retrieve a 2-dimensional array of doubles from a result set, without boxing its elements. The corresponding
+     * database column must be a 2-dimensional double precision or real array without null elements.
+     */
+    public static double[][] get2DimArrayOfDouble(ResultSet rs, int index) throws SQLException {
+        return ArrayDecoder.to2DimDoubleArray(rs, index);
+    }
+
     /**
      * Create a composite where clause
      */
@@ -0,0 +1,170 @@
+/*
+ * BatchResult.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.time.Duration;
+
+/**
+ * Result of executing a batch: the number of rows, the time taken by each chunk and, when requested,
+ * the generated keys (in row order) and the number of inserted and updated rows.
+ */
+public class BatchResult {
+
+    private final int[] chunkSizes;
+
+    private final long[] chunkNanos;
+
+    private final long[] keys;
+
+    private final long inserted; // -1 when not counted
+
+    private final long updated;
+
+    private final long modified; // -1 when unknown
+
+    BatchResult(int[] chunkSizes, long[] chunkNanos, long[] keys, long inserted, long updated, long modified) {
+        this.chunkSizes = chunkSizes;
+        this.chunkNanos = chunkNanos;
+        this.keys = keys;
+        this.inserted = inserted;
+        this.updated = updated;
+        this.modified = modified;
+    }
+
+    /**
+     * Total number of rows in the batch
+     */
+    public int getRowCount() {
+        int count = 0;
+        for (int size : chunkSizes) {
+            count += size;
+        }
+        return count;
+    }
+
+    /**
+     * Number of chunks in which the batch was sent to the database
+     */
+    public int getChunkCount() {
+        return chunkSizes.length;
+    }
+
+    /**
+     * Number of rows in the given chunk
+     */
+    public int getChunkSize(int chunk) {
+        return chunkSizes[chunk];
+    }
+
+    /**
+     * Time it took to execute the given chunk
+     */
+    public Duration getChunkDuration(int chunk) {
+        return Duration.ofNanos(chunkNanos[chunk]);
+    }
+
+    /**
+     * Total time spent executing chunks
+     */
+    public Duration getTotalDuration() {
+        long total = 0;
+        for (long nanos : chunkNanos) {
+            total += nanos;
+        }
+        return Duration.ofNanos(total);
+    }
+
+    /**
+     * Generated keys as ints, in row order.
+     *
+     * @throws IllegalStateException when the batch was not asked to return generated keys
+     * @throws ArithmeticException when a key does not fit into an int
+     */
+    public int[] getKeys() {
+        long[] longKeys = getLongKeys();
+        int[] result = new int[longKeys.length];
+        for (int i = 0; i < longKeys.length; i++) {
+            result[i] = Math.toIntExact(longKeys[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Generated keys as longs, in row order.
+     *
+     * @throws IllegalStateException when the batch was not asked to return generated keys
+     */
+    public long[] getLongKeys() {
+        if (keys == null) {
+            throw new IllegalStateException("Batch was not asked to return generated keys");
+        }
+        return keys.clone();
+    }
+
+    /**
+     * Number of rows that were inserted or updated, as reported by the database. For upserts that
+     * {@link UpsertHeader#skipUnchanged() skip unchanged rows}, this does not include the rows
+     * that were left unchanged.
+     *
+     * @throws IllegalStateException when the driver did not report update counts
+     */
+    public long getModifiedCount() {
+        if (modified < 0) {
+            throw new IllegalStateException("Update counts were not reported by the driver");
+        }
+        return modified;
+    }
+
+    private void checkCounted() {
+        if (inserted < 0) {
+            throw new IllegalStateException("Batch was not asked to count changes");
+        }
+    }
+
+    /**
+     * Number of rows that were inserted.
+     *
+     * @throws IllegalStateException when the batch was not asked to count changes
+     * @see UpsertBatch#countChanges()
+     */
+    public long getInsertedCount() {
+        checkCounted();
+        return inserted;
+    }
+
+    /**
+     * Number of existing rows that were updated.
+     *
+     * @throws IllegalStateException when the batch was not asked to count changes
+     * @see UpsertBatch#countChanges()
+     */
+    public long getUpdatedCount() {
+        checkCounted();
+        return updated;
+    }
+
+    /**
+     * Number of rows that were neither inserted nor updated, because of a conflict with
+     * an existing row that was left unchanged.
+     *
+     * @throws IllegalStateException when the batch was not asked to count changes
+     * @see UpsertBatch#countChanges()
+     */
+    public long getUnchangedCount() {
+        checkCounted();
+        return getRowCount() - inserted - updated;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{rows=" + getRowCount() + ", chunks=" + getChunkCount() +
+                ", duration=" + getTotalDuration() + "}";
+    }
+}
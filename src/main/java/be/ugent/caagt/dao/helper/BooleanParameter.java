@@ -15,7 +15,7 @@ import java.sql.SQLException;
 /**
  * Implementation of {@link Parameter} for booleans.
  */
-public class BooleanParameter implements Parameter {
+public class BooleanParameter implements TextParameter {
 
     private final boolean par;
 
@@ -27,4 +27,9 @@ public class BooleanParameter implements Parameter {
     public void setParameter(PreparedStatement ps, int index) throws SQLException {
         ps.setBoolean(index, par);
     }
+
+    @Override
+    public String getText() {
+        return par ? "t" : "f";
+    }
 }
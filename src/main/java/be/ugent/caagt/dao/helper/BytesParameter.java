@@ -15,7 +15,7 @@ import java.sql.SQLException;
 /**
  * Implementation of {@link Parameter} for bytes.
  */
-public class BytesParameter implements Parameter {
+public class BytesParameter implements TextParameter {
 
     private final byte[] par;
 
@@ -27,4 +27,18 @@ public class BytesParameter implements Parameter {
     public void setParameter(PreparedStatement ps, int index) throws SQLException{
         ps.setBytes(index, par);
     }
+
+    @Override
+    public String getText() {
+        if (par == null) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder(2 + 2 * par.length);
+        builder.append("\\x");
+        for (byte b : par) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16))
+                    .append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
 }
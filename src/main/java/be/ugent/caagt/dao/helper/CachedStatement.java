@@ -0,0 +1,64 @@
+/*
+ * CachedStatement.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Prepared statement borrowed from a {@link StatementCache}. Closing this object returns
+ * the statement to the cache instead of closing it, and releases the lock of the context
+ * (see {@link BaseDAC#lock()}).
+ */
+final class CachedStatement implements AutoCloseable {
+
+    private final StatementCache cache;
+
+    private final StatementCache.Key key;
+
+    private final PreparedStatement statement;
+
+    private BaseDAC owner; // null once the lock has been released
+
+    CachedStatement(StatementCache cache, StatementCache.Key key, PreparedStatement statement, BaseDAC owner) {
+        this.cache = cache;
+        this.key = key;
+        this.statement = statement;
+        this.owner = owner;
+    }
+
+    /**
+     * The underlying prepared statement. Must not be closed by the caller.
+     */
+    PreparedStatement get() {
+        return statement;
+    }
+
+    /**
+     * Releases the lock of the context before this statement is closed. Used for statements whose result
+     * remains open after the operation that executed them, and which may be closed by a different thread.
+     */
+    void unlock() {
+        if (owner != null) {
+            BaseDAC context = owner;
+            owner = null;
+            context.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            cache.release(key, statement);
+        } finally {
+            unlock();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * ColumnIndex.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Maps the column labels of a result set to their indices. Like {@link java.sql.ResultSet#findColumn}, labels
+ * are case insensitive and the first column wins when several columns have the same label.
+ * @see RowMapper
+ */
+public final class ColumnIndex {
+
+    private final Map<String, Integer> indices;
+
+    private final int size;
+
+    private final List<String> labels;
+
+    ColumnIndex(ResultSetMetaData metaData) throws SQLException {
+        this.size = metaData.getColumnCount();
+        this.indices = new HashMap<>();
+        String[] array = new String[size];
+        for (int i = 1; i <= size; i++) {
+            array[i - 1] = metaData.getColumnLabel(i).toLowerCase(Locale.ROOT);
+            indices.putIfAbsent(array[i - 1], i);
+        }
+        this.labels = List.of(array);
+    }
+
+    /**
+     * The index of the column with the given label
+     * @throws SQLException when there is no such column
+     */
+    public int get(String label) throws SQLException {
+        Integer index = indices.get(label.toLowerCase(Locale.ROOT));
+        if (index == null) {
+            throw new SQLException("The column name " + label + " was not found in this ResultSet.", "42703");
+        }
+        return index;
+    }
+
+    /**
+     * Does the result set contain a column with the given label?
+     */
+    public boolean contains(String label) {
+        return indices.containsKey(label.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Number of columns in the result set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The column labels (in lower case), in order
+     */
+    List<String> labels() {
+        return labels;
+    }
+}
@@ -0,0 +1,465 @@
+/*
+ * ColumnarResult.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Query result stored by column instead of by row. Integer, floating point and boolean columns are stored as
+ * arrays of primitives, all other columns (including enums) as strings in PostgreSQL text format, which are dictionary
+ * encoded. Numeric (decimal) columns are also stored as strings, as they cannot always be represented exactly
+ * by a double. Cast them to {@code float8} in the query when a double suffices. Null values are recorded in a
+ * separate bit set for every column.
+ * <p>Note that the arrays returned by the columns are not copied, and hence should not be changed.</p>
+ * @see AbstractQueryStatement#getColumns()
+ */
+public final class ColumnarResult {
+
+    /**
+     * Single column of the result
+     */
+    public abstract static class Column {
+
+        private final String label;
+
+        private final BitSet nulls;
+
+        private Column(String label, BitSet nulls) {
+            this.label = label;
+            this.nulls = nulls;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * Number of rows in this column
+         */
+        public abstract int size();
+
+        /**
+         * Is the value in the given row (starting from 0) null?
+         */
+        public boolean isNull(int row) {
+            return nulls.get(row);
+        }
+
+        /**
+         * The rows (starting from 0) in which the value is null
+         */
+        public BitSet getNulls() {
+            return (BitSet) nulls.clone();
+        }
+    }
+
+    public static final class IntColumn extends Column {
+
+        private final int[] values;
+
+        private IntColumn(String label, BitSet nulls, int[] values) {
+            super(label, nulls);
+            this.values = values;
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        /**
+         * The value in the given row, or 0 when it is null
+         */
+        public int get(int row) {
+            return values[row];
+        }
+
+        public int[] values() {
+            return values;
+        }
+    }
+
+    public static final class LongColumn extends Column {
+
+        private final long[] values;
+
+        private LongColumn(String label, BitSet nulls, long[] values) {
+            super(label, nulls);
+            this.values = values;
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        /**
+         * The value in the given row, or 0 when it is null
+         */
+        public long get(int row) {
+            return values[row];
+        }
+
+        public long[] values() {
+            return values;
+        }
+    }
+
+    public static final class DoubleColumn extends Column {
+
+        private final double[] values;
+
+        private DoubleColumn(String label, BitSet nulls, double[] values) {
+            super(label, nulls);
+            this.values = values;
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        /**
+         * The value in the given row, or 0.0 when it is null
+         */
+        public double get(int row) {
+            return values[row];
+        }
+
+        public double[] values() {
+            return values;
+        }
+    }
+
+    public static final class BooleanColumn extends Column {
+
+        private final BitSet values;
+
+        private final int size;
+
+        private BooleanColumn(String label, BitSet nulls, BitSet values, int size) {
+            super(label, nulls);
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * The value in the given row, or false when it is null
+         */
+        public boolean get(int row) {
+            return values.get(row);
+        }
+
+        /**
+         * The rows (starting from 0) in which the value is true
+         */
+        public BitSet getTrues() {
+            return (BitSet) values.clone();
+        }
+    }
+
+    /**
+     * Dictionary encoded column of strings. Every row contains an index into the dictionary, or -1 for null.
+     */
+    public static final class StringColumn extends Column {
+
+        private final int[] codes;
+
+        private final String[] dictionary;
+
+        private StringColumn(String label, BitSet nulls, int[] codes, String[] dictionary) {
+            super(label, nulls);
+            this.codes = codes;
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        public int size() {
+            return codes.length;
+        }
+
+        /**
+         * The value in the given row, or null
+         */
+        public String get(int row) {
+            int code = codes[row];
+            return code < 0 ? null : dictionary[code];
+        }
+
+        /**
+         * Index into the dictionary for every row, or -1 for null
+         */
+        public int[] codes() {
+            return codes;
+        }
+
+        /**
+         * The different (non-null) values in this column, in order of first appearance
+         */
+        public String[] dictionary() {
+            return dictionary;
+        }
+    }
+
+    // collects the values of a single column while the rows are read
+    private abstract static class Buffer {
+
+        final String label;
+
+        final BitSet nulls = new BitSet();
+
+        Buffer(String label) {
+            this.label = label;
+        }
+
+        abstract void read(ResultSet rs, int column, int row) throws SQLException;
+
+        abstract Column build(int rows);
+    }
+
+    private static final class IntBuffer extends Buffer {
+        private final IntArrayBuilder values = new IntArrayBuilder(256);
+
+        IntBuffer(String label) {
+            super(label);
+        }
+
+        @Override
+        void read(ResultSet rs, int column, int row) throws SQLException {
+            values.add(rs.getInt(column));
+            if (rs.wasNull()) {
+                nulls.set(row);
+            }
+        }
+
+        @Override
+        Column build(int rows) {
+            return new IntColumn(label, nulls, values.toArray());
+        }
+    }
+
+    private static final class LongBuffer extends Buffer {
+        private final LongArrayBuilder values = new LongArrayBuilder(256);
+
+        LongBuffer(String label) {
+            super(label);
+        }
+
+        @Override
+        void read(ResultSet rs, int column, int row) throws SQLException {
+            values.add(rs.getLong(column));
+            if (rs.wasNull()) {
+                nulls.set(row);
+            }
+        }
+
+        @Override
+        Column build(int rows) {
+            return new LongColumn(label, nulls, values.toArray());
+        }
+    }
+
+    private static final class DoubleBuffer extends Buffer {
+        private final DoubleArrayBuilder values = new DoubleArrayBuilder(256);
+
+        DoubleBuffer(String label) {
+            super(label);
+        }
+
+        @Override
+        void read(ResultSet rs, int column, int row) throws SQLException {
+            values.add(rs.getDouble(column));
+            if (rs.wasNull()) {
+                nulls.set(row);
+            }
+        }
+
+        @Override
+        Column build(int rows) {
+            return new DoubleColumn(label, nulls, values.toArray());
+        }
+    }
+
+    private static final class BooleanBuffer extends Buffer {
+        private final BitSet values = new BitSet();
+
+        BooleanBuffer(String label) {
+            super(label);
+        }
+
+        @Override
+        void read(ResultSet rs, int column, int row) throws SQLException {
+            if (rs.getBoolean(column)) {
+                values.set(row);
+            } else if (rs.wasNull()) {
+                nulls.set(row);
+            }
+        }
+
+        @Override
+        Column build(int rows) {
+            return new BooleanColumn(label, nulls, values, rows);
+        }
+    }
+
+    private static final class TextBuffer extends Buffer {
+        private final IntArrayBuilder codes = new IntArrayBuilder(256);
+        private final Map<String, Integer> codesByValue = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+
+        TextBuffer(String label) {
+            super(label);
+        }
+
+        @Override
+        void read(ResultSet rs, int column, int row) throws SQLException {
+            String value = rs.getString(column);
+            if (value == null) {
+                codes.add(-1);
+                nulls.set(row);
+            } else {
+                Integer code = codesByValue.get(value);
+                if (code == null) {
+                    code = dictionary.size();
+                    codesByValue.put(value, code);
+                    dictionary.add(value);
+                }
+                codes.add(code);
+            }
+        }
+
+        @Override
+        Column build(int rows) {
+            return new StringColumn(label, nulls, codes.toArray(), dictionary.toArray(new String[0]));
+        }
+    }
+
+    private static Buffer buffer(ResultSetMetaData metaData, int column) throws SQLException {
+        String label = metaData.getColumnLabel(column);
+        return switch (metaData.getColumnType(column)) {
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER -> new IntBuffer(label);
+            case Types.BIGINT -> new LongBuffer(label);
+            case Types.REAL, Types.FLOAT, Types.DOUBLE -> new DoubleBuffer(label);
+            case Types.BIT, Types.BOOLEAN -> new BooleanBuffer(label);
+            default -> new TextBuffer(label);
+        };
+    }
+
+    private final Column[] columns;
+
+    private final ColumnIndex index;
+
+    private final int rows;
+
+    private ColumnarResult(Column[] columns, ColumnIndex index, int rows) {
+        this.columns = columns;
+        this.index = index;
+        this.rows = rows;
+    }
+
+    /**
+     * Reads all (remaining) rows of the given result set.
+     */
+    static ColumnarResult read(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int size = metaData.getColumnCount();
+        Buffer[] buffers = new Buffer[size];
+        for (int i = 0; i < size; i++) {
+            buffers[i] = buffer(metaData, i + 1);
+        }
+        int rows = 0;
+        while (rs.next()) {
+            for (int i = 0; i < size; i++) {
+                buffers[i].read(rs, i + 1, rows);
+            }
+            rows++;
+        }
+        Column[] columns = new Column[size];
+        for (int i = 0; i < size; i++) {
+            columns[i] = buffers[i].build(rows);
+        }
+        return new ColumnarResult(columns, new ColumnIndex(metaData), rows);
+    }
+
+    /**
+     * Number of rows in the result
+     */
+    public int getRowCount() {
+        return rows;
+    }
+
+    /**
+     * Number of columns in the result
+     */
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    /**
+     * The column with the given index (starting from 1)
+     */
+    public Column getColumn(int column) {
+        return columns[column - 1];
+    }
+
+    /**
+     * The column with the given label (case insensitive)
+     * @throws IllegalArgumentException when there is no such column
+     */
+    public Column getColumn(String label) {
+        try {
+            return columns[index.get(label) - 1];
+        } catch (SQLException ex) {
+            throw new IllegalArgumentException(ex.getMessage());
+        }
+    }
+
+    private <C extends Column> C getColumn(String label, Class<C> type) {
+        Column column = getColumn(label);
+        if (type.isInstance(column)) {
+            return type.cast(column);
+        } else {
+            throw new IllegalArgumentException("Column " + label + " is not of type " + type.getSimpleName());
+        }
+    }
+
+    public IntColumn getIntColumn(String label) {
+        return getColumn(label, IntColumn.class);
+    }
+
+    public LongColumn getLongColumn(String label) {
+        return getColumn(label, LongColumn.class);
+    }
+
+    public DoubleColumn getDoubleColumn(String label) {
+        return getColumn(label, DoubleColumn.class);
+    }
+
+    public BooleanColumn getBooleanColumn(String label) {
+        return getColumn(label, BooleanColumn.class);
+    }
+
+    public StringColumn getStringColumn(String label) {
+        return getColumn(label, StringColumn.class);
+    }
+}
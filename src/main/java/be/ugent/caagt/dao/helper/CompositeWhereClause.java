@@ -9,18 +9,15 @@
 
 package be.ugent.caagt.dao.helper;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class CompositeWhereClause extends StatementModifier implements SupportsWhere<CompositeWhereClause> {
 
-    private List<WhereClause> clauses;
+    private PersistentList<WhereClause> clauses;
 
     private final EnumClassNameTranslator enumClassNameTranslator;
 
     public CompositeWhereClause(EnumClassNameTranslator enumClassNameTranslator) {
         this.enumClassNameTranslator = enumClassNameTranslator;
-        this.clauses = new ArrayList<>();
+        this.clauses = PersistentList.empty();
     }
 
     /**
@@ -34,8 +31,7 @@ public class CompositeWhereClause extends StatementModifier implements SupportsW
     @Override
     public CompositeWhereClause where(WhereClause clause) {
         CompositeWhereClause result = new CompositeWhereClause(enumClassNameTranslator);
-        result.clauses = new ArrayList<>(clauses);
-        result.clauses.add(clause);
+        result.clauses = clauses.append(clause);
         return result;
     }
 
@@ -0,0 +1,241 @@
+/*
+ * ConstructorMapping.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps the columns of a result set to the arguments of a constructor of a record, or of a constructor
+ * annotated with {@link ColumnNames}. For every column layout, a single method handle is composed which
+ * reads the columns by index with a getter that is specific to the type of the corresponding argument,
+ * and then calls the constructor.
+ */
+final class ConstructorMapping<T> {
+
+    private static final ClassValue<ConstructorMapping<?>> MAPPINGS = new ClassValue<>() {
+        @Override
+        protected ConstructorMapping<?> computeValue(Class<?> type) {
+            return new ConstructorMapping<>(type, null);
+        }
+    };
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final Map<Class<?>, MethodHandle> GETTERS = new HashMap<>();
+
+    private static final MethodHandle GET_OBJECT;
+
+    private static final MethodHandle GET_ENUM;
+
+    private static void getter(Class<?> type, String name) throws ReflectiveOperationException {
+        GETTERS.put(type, LOOKUP.findVirtual(ResultSet.class, name, MethodType.methodType(type, int.class)));
+    }
+
+    private static void staticGetter(Class<?> type, String name) throws ReflectiveOperationException {
+        GETTERS.put(type, LOOKUP.findStatic(BaseDAO.class, name, MethodType.methodType(type, ResultSet.class, int.class)));
+    }
+
+    static {
+        try {
+            getter(int.class, "getInt");
+            getter(long.class, "getLong");
+            getter(double.class, "getDouble");
+            getter(float.class, "getFloat");
+            getter(short.class, "getShort");
+            getter(byte.class, "getByte");
+            getter(boolean.class, "getBoolean");
+            getter(String.class, "getString");
+            getter(BigDecimal.class, "getBigDecimal");
+            getter(byte[].class, "getBytes");
+            staticGetter(LocalDate.class, "getLocalDate");
+            staticGetter(LocalTime.class, "getLocalTime");
+            staticGetter(LocalDateTime.class, "getLocalDateTime");
+            staticGetter(Instant.class, "getInstant");
+            MethodType type = MethodType.methodType(Object.class, ResultSet.class, int.class, Class.class);
+            GET_OBJECT = LOOKUP.findStatic(ConstructorMapping.class, "getObject", type);
+            GET_ENUM = LOOKUP.findStatic(ConstructorMapping.class, "getEnum", type);
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    // used for boxed types and all types without a specific getter
+    private static Object getObject(ResultSet rs, int index, Class<?> type) throws SQLException {
+        return rs.getObject(index, type);
+    }
+
+    // uses the same representation as EnumParameter
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object getEnum(ResultSet rs, int index, Class<?> type) throws SQLException {
+        String value = rs.getString(index);
+        return value == null ? null : EnumParameter.valueOf((Class) type, value);
+    }
+
+    private final MethodHandle constructor;
+
+    private final Class<?>[] types;
+
+    private final String[][] labels; // candidate column labels, for every argument
+
+    private final ConcurrentHashMap<List<String>, ResultSetConverter<T>> converters;
+
+    @SuppressWarnings("unchecked")
+    static <T> ConstructorMapping<T> of(Class<T> type) {
+        return (ConstructorMapping<T>) MAPPINGS.get(type);
+    }
+
+    /**
+     * Create a mapping for the given type, using the given lookup to access its constructor, or
+     * using reflection when the lookup is null.
+     */
+    ConstructorMapping(Class<T> type, MethodHandles.Lookup lookup) {
+        Constructor<T> ctor = findConstructor(type);
+        this.types = ctor.getParameterTypes();
+        this.labels = new String[types.length][];
+        ColumnNames names = ctor.getAnnotation(ColumnNames.class);
+        if (names != null) {
+            if (names.value().length != types.length) {
+                throw new IllegalArgumentException("Number of column names does not match constructor of " + type.getName());
+            }
+            for (int i = 0; i < types.length; i++) {
+                labels[i] = new String[]{names.value()[i]};
+            }
+        } else {
+            RecordComponent[] components = type.getRecordComponents();
+            for (int i = 0; i < types.length; i++) {
+                String name = components[i].getName();
+                labels[i] = new String[]{EnumClassNameTranslator.SNAKE_CASE.translate(name), name};
+            }
+        }
+        try {
+            if (lookup == null) {
+                ctor.trySetAccessible();
+                lookup = LOOKUP;
+            }
+            this.constructor = lookup.unreflectConstructor(ctor);
+        } catch (IllegalAccessException ex) {
+            throw new IllegalArgumentException("Constructor of " + type.getName() + " is not accessible", ex);
+        }
+        this.converters = new ConcurrentHashMap<>();
+    }
+
+    private static <T> Constructor<T> findConstructor(Class<T> type) {
+        Constructor<T> result = null;
+        for (Constructor<?> ctor : type.getDeclaredConstructors()) {
+            if (ctor.isAnnotationPresent(ColumnNames.class)) {
+                if (result != null) {
+                    throw new IllegalArgumentException("More than one constructor of " + type.getName() + " is annotated");
+                }
+                @SuppressWarnings("unchecked")
+                Constructor<T> annotated = (Constructor<T>) ctor;
+                result = annotated;
+            }
+        }
+        if (result != null) {
+            return result;
+        } else if (type.isRecord()) {
+            RecordComponent[] components = type.getRecordComponents();
+            Class<?>[] parameterTypes = new Class<?>[components.length];
+            for (int i = 0; i < components.length; i++) {
+                parameterTypes[i] = components[i].getType();
+            }
+            try {
+                return type.getDeclaredConstructor(parameterTypes);
+            } catch (NoSuchMethodException ex) {
+                throw new IllegalStateException(ex); // a record always has a canonical constructor
+            }
+        } else {
+            throw new IllegalArgumentException(type.getName() + " must be a record or have a constructor annotated with @ColumnNames");
+        }
+    }
+
+    /**
+     * Returns the converter for the column layout of the given result set, composing it if necessary.
+     */
+    ResultSetConverter<T> bind(ColumnIndex columns) throws SQLException {
+        ResultSetConverter<T> converter = converters.get(columns.labels());
+        if (converter == null) {
+            converter = compose(columns);
+            converters.putIfAbsent(columns.labels(), converter);
+        }
+        return converter;
+    }
+
+    private int index(ColumnIndex columns, String[] candidates) throws SQLException {
+        for (String label : candidates) {
+            if (columns.contains(label)) {
+                return columns.get(label);
+            }
+        }
+        return columns.get(candidates[0]); // throws
+    }
+
+    private static MethodHandle getter(Class<?> type) {
+        MethodHandle getter = GETTERS.get(type);
+        if (getter != null) {
+            return getter;
+        }
+        getter = type.isEnum() ? GET_ENUM : GET_OBJECT;
+        return MethodHandles.insertArguments(getter, 2, type)
+                .asType(MethodType.methodType(type, ResultSet.class, int.class));
+    }
+
+    private ResultSetConverter<T> compose(ColumnIndex columns) throws SQLException {
+        int size = types.length;
+        MethodHandle[] filters = new MethodHandle[size];
+        for (int i = 0; i < size; i++) {
+            filters[i] = MethodHandles.insertArguments(getter(types[i]), 1, index(columns, labels[i]));
+        }
+        // (ResultSet, ..., ResultSet) -> T, then use the same result set for every argument
+        MethodHandle handle = MethodHandles.filterArguments(constructor, 0, filters);
+        handle = size == 0
+                ? MethodHandles.dropArguments(handle, 0, ResultSet.class)
+                : MethodHandles.permuteArguments(handle,
+                MethodType.methodType(handle.type().returnType(), ResultSet.class), new int[size]);
+        return new Composed<>(handle.asType(MethodType.methodType(Object.class, ResultSet.class)));
+    }
+
+    private static final class Composed<T> implements ResultSetConverter<T> {
+
+        private final MethodHandle handle; // (ResultSet) -> Object
+
+        Composed(MethodHandle handle) {
+            this.handle = handle;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T convert(ResultSet rs) throws SQLException {
+            try {
+                return (T) handle.invokeExact(rs);
+            } catch (SQLException | RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new UndeclaredThrowableException(ex); // checked exception thrown by the constructor
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * CopyExport.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyOut;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+
+/**
+ * Exports the result of a query using {@code COPY (...) TO STDOUT}. Rows are copied into a single
+ * buffer which is written to the destination when full, so that only the driver allocates per row.
+ */
+final class CopyExport {
+
+    private CopyExport() {
+        // utility class
+    }
+
+    /**
+     * Destination of the exported data
+     */
+    interface Sink {
+        void write(byte[] buffer, int length) throws IOException;
+    }
+
+    /**
+     * The COPY statement for the given query. Parameters are inlined as literals, because COPY
+     * does not allow placeholders.
+     */
+    static String copyStatement(String sql, PersistentList<Parameter> params, CopyFormat format) {
+        return "COPY (" + SqlPlaceholders.inline(sql, params) + ") TO STDOUT WITH " + format.getOptions();
+    }
+
+    /**
+     * Executes the given COPY statement and writes the data to the sink.
+     *
+     * @return the number of rows exported
+     */
+    static long copyOut(BaseDAC context, String copyStatement, Sink sink) {
+        context.lock();
+        try {
+            CopyOut copyOut = context.getConnection().unwrap(PGConnection.class).getCopyAPI().copyOut(copyStatement);
+            try {
+                byte[] buffer = new byte[CopyLoader.DEFAULT_BUFFER_SIZE];
+                int length = 0;
+                byte[] row = copyOut.readFromCopy();
+                while (row != null) {
+                    if (length + row.length > buffer.length && length > 0) {
+                        sink.write(buffer, length);
+                        length = 0;
+                    }
+                    if (row.length > buffer.length) {
+                        sink.write(row, row.length);
+                    } else {
+                        System.arraycopy(row, 0, buffer, length, row.length);
+                        length += row.length;
+                    }
+                    row = copyOut.readFromCopy();
+                }
+                if (length > 0) {
+                    sink.write(buffer, length);
+                }
+                return copyOut.getHandledRowCount();
+            } finally {
+                if (copyOut.isActive()) {
+                    copyOut.cancelCopy();
+                }
+            }
+        } catch (SQLException ex) {
+            throw BaseDAO.convert(ex);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            context.unlock();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * CopyFormat.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+/**
+ * Output formats of the COPY command of PostgreSQL, as used by {@link AbstractQueryStatement#copyTo}.
+ */
+public enum CopyFormat {
+
+    /**
+     * Tab separated text, with backslash escapes
+     */
+    TEXT("(FORMAT text)"),
+
+    /**
+     * Comma separated values
+     */
+    CSV("(FORMAT csv)"),
+
+    /**
+     * Comma separated values, with a first line that contains the column names
+     */
+    CSV_WITH_HEADER("(FORMAT csv, HEADER)"),
+
+    /**
+     * Binary format of PostgreSQL
+     */
+    BINARY("(FORMAT binary)");
+
+    private final String options;
+
+    CopyFormat(String options) {
+        this.options = options;
+    }
+
+    String getOptions() {
+        return options;
+    }
+}
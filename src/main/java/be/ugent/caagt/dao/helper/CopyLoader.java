@@ -0,0 +1,190 @@
+/*
+ * CopyLoader.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import be.ugent.caagt.dao.DataAccessException;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+/**
+ * Bulk loader that inserts many rows into a table using the COPY command of PostgreSQL. Obtained
+ * by calling {@link BaseDAO#copyInto}. Rows are described with the same value(...) methods as an insert
+ * statement, for example
+ * <pre>
+ *     long count = copyInto("persons").load(persons,
+ *         (row, person) -&gt; row.value("name", person.name()).value("first_name", person.firstName())
+ *     );
+ * </pre>
+ * <p>All rows must have the same columns (in the same order). Rows are encoded in the text format of COPY
+ * and sent to the database in blocks of limited size, so that memory use does not depend on the number of
+ * rows.</p>
+ */
+public class CopyLoader {
+
+    /**
+     * Default value for {@link #bufferSize}
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private final String table;
+
+    private final BaseDAC context;
+
+    private int bufferSize;
+
+    CopyLoader(String table, BaseDAC context) {
+        this.table = table;
+        this.context = context;
+        this.bufferSize = DEFAULT_BUFFER_SIZE;
+    }
+
+    /**
+     * Approximate number of characters that is collected before it is sent to the database
+     */
+    public CopyLoader bufferSize(int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        this.bufferSize = bufferSize;
+        return this;
+    }
+
+    /**
+     * Load all rows of the given stream. Each element of the stream is converted into a row by adding values to
+     * the insert statement that is passed as the first argument of the converter.
+     *
+     * @return the number of rows loaded
+     */
+    public <T> long load(Stream<T> rows, BiFunction<InsertSQLStatement, T, InsertSQLStatement> converter)
+            throws DataAccessException {
+        return load(rows.iterator(), converter);
+    }
+
+    /**
+     * Load all rows of the given iterable.
+     * @see #load(Stream, BiFunction)
+     */
+    public <T> long load(Iterable<T> rows, BiFunction<InsertSQLStatement, T, InsertSQLStatement> converter)
+            throws DataAccessException {
+        return load(rows.iterator(), converter);
+    }
+
+    /**
+     * Load all rows of the given iterator.
+     * @see #load(Stream, BiFunction)
+     */
+    public <T> long load(Iterator<T> rows, BiFunction<InsertSQLStatement, T, InsertSQLStatement> converter)
+            throws DataAccessException {
+        if (!rows.hasNext()) {
+            return 0L;
+        }
+        InsertSQLStatement prototype = new InsertSQLStatement(table, context);
+        InsertSQLStatement first = converter.apply(prototype, rows.next());
+        context.lock();
+        try {
+            CopyIn copyIn = context.getConnection().unwrap(PGConnection.class).getCopyAPI().copyIn(copyStatement(first));
+            try {
+                StringBuilder buffer = new StringBuilder(bufferSize + bufferSize / 8);
+                PersistentList<NamedParameter> columns = first.values;
+                appendRow(buffer, columns, columns);
+                while (rows.hasNext()) {
+                    if (buffer.length() >= bufferSize) {
+                        write(copyIn, buffer);
+                    }
+                    appendRow(buffer, columns, converter.apply(prototype, rows.next()).values);
+                }
+                write(copyIn, buffer);
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        } catch (SQLException ex) {
+            throw BaseDAO.convert(ex);
+        } finally {
+            context.unlock();
+        }
+    }
+
+    private String copyStatement(InsertSQLStatement first) {
+        if (first.values.isEmpty()) {
+            throw new IllegalArgumentException("copy expects at least one value()");
+        }
+        StringBuilder builder = new StringBuilder("COPY ");
+        builder.append(table).append(" (");
+        boolean isFirst = true;
+        for (NamedParameter value : first.values) {
+            if (!isFirst) {
+                builder.append(", ");
+            }
+            builder.append(value.getName());
+            isFirst = false;
+        }
+        return builder.append(") FROM STDIN").toString();
+    }
+
+    private static void write(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (!buffer.isEmpty()) {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+    }
+
+    private static String getText(NamedParameter value) {
+        if (value.getParameter() instanceof TextParameter parameter) {
+            return parameter.getText();
+        } else {
+            throw new IllegalArgumentException("Value for column " + value.getName() + " has no text format: "
+                    + value.getParameter().getClass().getSimpleName() + " does not implement TextParameter");
+        }
+    }
+
+    // Appends a row in COPY text format: tab separated, with backslash escapes and \N for null
+    private static void appendRow(StringBuilder buffer, PersistentList<NamedParameter> columns,
+                                  PersistentList<NamedParameter> values) {
+        int size = columns.size();
+        if (values.size() != size) {
+            throw new IllegalArgumentException("All rows must have the same columns");
+        }
+        for (int i = 0; i < size; i++) {
+            NamedParameter value = values.get(i);
+            if (!value.getName().equals(columns.get(i).getName())) {
+                throw new IllegalArgumentException("All rows must have the same columns");
+            }
+            if (i > 0) {
+                buffer.append('\t');
+            }
+            String text = getText(value);
+            if (text == null) {
+                buffer.append("\\N");
+            } else {
+                for (int j = 0; j < text.length(); j++) {
+                    char ch = text.charAt(j);
+                    switch (ch) {
+                        case '\\' -> buffer.append("\\\\");
+                        case '\n' -> buffer.append("\\n");
+                        case '\r' -> buffer.append("\\r");
+                        case '\t' -> buffer.append("\\t");
+                        default -> buffer.append(ch);
+                    }
+                }
+            }
+        }
+        buffer.append('\n');
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Cursor.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import be.ugent.caagt.dao.DACException;
+import be.ugent.caagt.dao.DataAccessException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Result set of a query that is fetched from the database in blocks of a given size, so that memory
+ * use does not depend on the size of the result.
+ * <p>PostgreSQL only uses a server side cursor inside a transaction. When the connection is in auto commit mode,
+ * auto commit is switched off while the cursor is open. The transaction is committed and auto commit is
+ * restored when the cursor is closed.</p>
+ * <p>The lock of the context is only held while the cursor is opened and closed, and not in between, because
+ * a cursor may be closed by a different thread. Rows that are fetched in between are serialized with other
+ * statements on the same connection by the driver.</p>
+ */
+final class Cursor implements AutoCloseable {
+
+    private final BaseDAC context;
+
+    private final Connection connection;
+
+    private final CachedStatement cs;
+
+    private final ResultSet rs;
+
+    private final boolean restoreAutoCommit;
+
+    private boolean closed;
+
+    Cursor(AbstractSQLStatement statement, int fetchSize) throws SQLException {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size must be positive");
+        }
+        this.context = statement.context;
+        this.connection = context.getConnection();
+        context.lock();
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+            if (autoCommit) {
+                connection.setAutoCommit(false);
+            }
+            CachedStatement cachedStatement = null;
+            try {
+                cachedStatement = statement.prepareStatement();
+                PreparedStatement ps = cachedStatement.get();
+                ps.setFetchSize(fetchSize);
+                statement.initParameters(ps);
+                this.rs = ps.executeQuery();
+            } catch (SQLException | RuntimeException ex) {
+                try {
+                    if (cachedStatement != null) {
+                        release(cachedStatement);
+                    }
+                } finally {
+                    if (autoCommit) {
+                        connection.rollback();
+                        connection.setAutoCommit(true);
+                    }
+                }
+                throw ex;
+            }
+            cachedStatement.unlock();
+            this.cs = cachedStatement;
+            this.restoreAutoCommit = autoCommit;
+        } finally {
+            context.unlock();
+        }
+    }
+
+    // Returns the statement to the cache, without the fetch size
+    private static void release(CachedStatement cachedStatement) throws SQLException {
+        try {
+            cachedStatement.get().setFetchSize(0);
+        } finally {
+            cachedStatement.close();
+        }
+    }
+
+    ResultSet getResultSet() {
+        return rs;
+    }
+
+    /**
+     * Changes the number of rows that is fetched at a time, for the remainder of the result.
+     */
+    void setFetchSize(int fetchSize) throws SQLException {
+        rs.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Move to the next row. Returns false when there are no more rows, or when the cursor is closed.
+     */
+    boolean next() throws SQLException {
+        return !closed && rs.next();
+    }
+
+    /**
+     * Closes the result set and returns the statement to the cache. Can safely be called more than once.
+     */
+    @Override
+    public void close() throws DataAccessException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        context.lock();
+        try {
+            try {
+                rs.close();
+            } finally {
+                try {
+                    release(cs);
+                } finally {
+                    if (restoreAutoCommit) {
+                        connection.commit();
+                        connection.setAutoCommit(true);
+                    }
+                }
+            }
+        } catch (SQLException ex) {
+            throw BaseDAO.convert(ex);
+        } finally {
+            context.unlock();
+        }
+    }
+
+    /**
+     * A sequential stream of the remaining rows, converted with the given converter. Closing
+     * the stream closes this cursor. The cursor is also closed as soon as the last row has been read.
+     */
+    <T> Stream<T> stream(ResultSetConverter<T> rsc) {
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (next()) {
+                        action.accept(rsc.convert(rs));
+                        return true;
+                    } else {
+                        close();
+                        return false;
+                    }
+                } catch (SQLException ex) {
+                    throw BaseDAO.convert(ex);
+                }
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    // Adds converted rows to the buffer until it contains the given number of rows, or no rows are left
+    private <T> void fill(List<T> buffer, int size, ResultSetConverter<T> rsc) throws SQLException {
+        while (buffer.size() < size && next()) {
+            buffer.add(rsc.convert(rs));
+        }
+    }
+
+    /**
+     * Passes the remaining rows to the consumer in chunks of the given size (except for the last chunk, which
+     * may be smaller). The same list objects are reused for every chunk. When overlap is true, the next chunk
+     * is fetched by a separate thread while the consumer processes the current one.
+     */
+    <T> void processInChunks(int chunkSize, ResultSetConverter<T> rsc, Consumer<List<T>> consumer, boolean overlap)
+            throws SQLException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        List<T> current = new ArrayList<>(chunkSize);
+        fill(current, chunkSize, rsc);
+        if (!overlap) {
+            List<T> view = Collections.unmodifiableList(current);
+            while (!current.isEmpty()) {
+                consumer.accept(view);
+                current.clear();
+                fill(current, chunkSize, rsc);
+            }
+            return;
+        }
+        List<T> next = new ArrayList<>(chunkSize);
+        List<T> currentView = Collections.unmodifiableList(current);
+        List<T> nextView = Collections.unmodifiableList(next);
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "daohelper-fetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            while (!current.isEmpty()) {
+                Future<?> fetch = null;
+                if (current.size() == chunkSize) {
+                    List<T> buffer = next;
+                    fetch = executor.submit(() -> {
+                        fill(buffer, chunkSize, rsc);
+                        return null;
+                    });
+                }
+                try {
+                    consumer.accept(currentView);
+                } catch (RuntimeException | Error ex) {
+                    if (fetch != null) {
+                        // the cursor must not be closed while it is still in use
+                        try {
+                            fetch.get();
+                        } catch (ExecutionException | InterruptedException suppressed) {
+                            ex.addSuppressed(suppressed);
+                        }
+                    }
+                    throw ex;
+                }
+                if (fetch == null) {
+                    return;
+                }
+                await(fetch);
+                current.clear();
+                List<T> list = current;
+                current = next;
+                next = list;
+                List<T> view = currentView;
+                currentView = nextView;
+                nextView = view;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(Future<?> future) throws SQLException {
+        try {
+            future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new DACException("Interrupted while fetching rows", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            } else if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            } else if (cause instanceof Error error) {
+                throw error;
+            } else {
+                throw new DACException("Could not fetch rows", ex);
+            }
+        }
+    }
+}
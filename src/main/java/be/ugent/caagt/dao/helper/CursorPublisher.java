@@ -0,0 +1,170 @@
+/*
+ * CursorPublisher.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the result of a query to subscribers, using a {@link Cursor}. Every subscriber gets its own cursor,
+ * which is opened when the first rows are requested. Rows are only fetched from the database when there is
+ * demand, with a fetch size that follows the number of outstanding requests (but not larger than the
+ * fetch size of the context).
+ * <p>Signals are emitted on the thread that calls {@link Flow.Subscription#request} (or {@link Flow.Subscription#cancel}),
+ * but never on two threads at the same time. After cancellation, the cursor is closed as soon as the row that
+ * is currently being fetched (if any) has been read.</p>
+ */
+final class CursorPublisher<T> implements Flow.Publisher<T> {
+
+    private final AbstractSQLStatement statement;
+
+    private final ResultSetConverter<T> rsc;
+
+    private final int maxFetchSize;
+
+    CursorPublisher(AbstractSQLStatement statement, ResultSetConverter<T> rsc, int maxFetchSize) {
+        if (maxFetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size must be positive");
+        }
+        this.statement = statement;
+        this.rsc = rsc;
+        this.maxFetchSize = maxFetchSize;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber);
+        subscriber.onSubscribe(new CursorSubscription(subscriber));
+    }
+
+    private final class CursorSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super T> subscriber;
+
+        private final AtomicLong demand = new AtomicLong();
+
+        // number of drain requests that are still to be handled, see drain()
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private volatile boolean cancelled;
+
+        private volatile IllegalArgumentException invalidRequest;
+
+        // only accessed while draining
+        private Cursor cursor;
+
+        private boolean done;
+
+        CursorSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Number of requested rows must be positive");
+            } else {
+                demand.accumulateAndGet(n, (current, extra) -> current + extra < 0 ? Long.MAX_VALUE : current + extra);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        // Only one thread can be draining at a time. Other threads simply record that a new drain is needed
+        private void drain() {
+            if (pending.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                emit();
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void emit() {
+            if (done) {
+                return;
+            }
+            if (cancelled) {
+                terminate(null, false);
+                return;
+            }
+            if (invalidRequest != null) {
+                terminate(invalidRequest, true);
+                return;
+            }
+            long requested = demand.get();
+            if (requested == 0) {
+                return;
+            }
+            try {
+                int fetchSize = (int) Math.min(requested, maxFetchSize);
+                if (cursor == null) {
+                    cursor = new Cursor(statement, fetchSize);
+                } else {
+                    cursor.setFetchSize(fetchSize);
+                }
+                long emitted = 0;
+                while (emitted < requested) {
+                    if (cancelled) {
+                        terminate(null, false);
+                        return;
+                    }
+                    if (!cursor.next()) {
+                        terminate(null, true);
+                        return;
+                    }
+                    subscriber.onNext(rsc.convert(cursor.getResultSet()));
+                    emitted++;
+                }
+                if (requested != Long.MAX_VALUE) {
+                    demand.addAndGet(-emitted);
+                }
+            } catch (SQLException ex) {
+                terminate(BaseDAO.convert(ex), !cancelled);
+            } catch (RuntimeException ex) {
+                terminate(ex, !cancelled);
+            }
+        }
+
+        // Closes the cursor and sends onComplete (exception null) or onError to the subscriber, if requested
+        private void terminate(RuntimeException exception, boolean signal) {
+            done = true;
+            if (cursor != null) {
+                try {
+                    cursor.close();
+                } catch (RuntimeException ex) {
+                    if (exception == null) {
+                        exception = ex;
+                    } else {
+                        exception.addSuppressed(ex);
+                    }
+                }
+                cursor = null;
+            }
+            if (signal) {
+                if (exception == null) {
+                    subscriber.onComplete();
+                } else {
+                    subscriber.onError(exception);
+                }
+            }
+        }
+    }
+}
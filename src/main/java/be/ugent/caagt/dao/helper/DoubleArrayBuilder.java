@@ -0,0 +1,49 @@
+/*
+ * DoubleArrayBuilder.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of doubles, to collect primitive values without boxing.
+ */
+final class DoubleArrayBuilder {
+
+    private double[] elements;
+
+    private int size;
+
+    DoubleArrayBuilder() {
+        this(16);
+    }
+
+    DoubleArrayBuilder(int capacity) {
+        this.elements = new double[Math.max(capacity, 1)];
+    }
+
+    void add(double value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        elements[size++] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    double[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+}
@@ -15,7 +15,7 @@ import java.sql.SQLException;
 /**
  * Implementation of {@link Parameter} for doubles.
  */
-public class DoubleParameter implements Parameter {
+public class DoubleParameter implements TextParameter {
 
     private final double par;
 
@@ -27,4 +27,9 @@ public class DoubleParameter implements Parameter {
     public void setParameter(PreparedStatement ps, int index) throws SQLException{
         ps.setDouble(index, par);
     }
+
+    @Override
+    public String getText() {
+        return Double.toString(par);
+    }
 }
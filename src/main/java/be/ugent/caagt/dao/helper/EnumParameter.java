@@ -11,8 +11,22 @@ package be.ugent.caagt.dao.helper;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
 
-public class EnumParameter<E extends Enum<E>> implements Parameter {
+public class EnumParameter<E extends Enum<E>> implements TextParameter {
+
+    // constants of every enum class, by the text that is written for them, see valueOf
+    private static final ClassValue<Map<String, Enum<?>>> CONSTANTS = new ClassValue<>() {
+        @Override
+        protected Map<String, Enum<?>> computeValue(Class<?> type) {
+            Map<String, Enum<?>> map = new HashMap<>();
+            for (Object constant : type.getEnumConstants()) {
+                map.putIfAbsent(constant.toString(), (Enum<?>) constant);
+            }
+            return map;
+        }
+    };
 
     private final E par;
 
@@ -28,8 +42,23 @@ public class EnumParameter<E extends Enum<E>> implements Parameter {
         ps.setString(index, par.toString());
     }
 
+    /**
+     * The constant of the given enum class that is written to the database as the given text, i.e., whose
+     * {@code toString()} is equal to the text. This is the inverse of {@link #setParameter}. For compatibility,
+     * the constant with the given name is returned when there is no such constant.
+     */
+    static <E extends Enum<E>> E valueOf(Class<E> enumClass, String text) {
+        Enum<?> constant = CONSTANTS.get(enumClass).get(text);
+        return constant == null ? Enum.valueOf(enumClass, text) : enumClass.cast(constant);
+    }
+
     @Override
     public String getQuestionMark() {
         return "?::" + enumClassTranslator.translate(par.getClass().getSimpleName());
     }
+
+    @Override
+    public String getText() {
+        return par == null ? null : par.toString();
+    }
 }
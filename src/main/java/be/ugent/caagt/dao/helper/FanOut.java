@@ -0,0 +1,274 @@
+/*
+ * FanOut.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import be.ugent.caagt.dao.DACException;
+import be.ugent.caagt.dao.DataAccessException;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Executes independent queries at the same time, each with its own data access context (and hence its
+ * own connection). For example
+ * <pre>
+ *     try (FanOut fanOut = provider.fanOut()) {
+ *         FanOut.Subtask&lt;List&lt;Person&gt;&gt; persons = fanOut.fork(
+ *             select("name, first_name").from("persons"), s -&gt; s.getList(Person::new)
+ *         );
+ *         FanOut.Subtask&lt;Integer&gt; count = fanOut.fork(select("count(*)").from("details"), s -&gt; s.getInt());
+ *         fanOut.join();
+ *         ... persons.get() ... count.get() ...
+ *     }
+ * </pre>
+ * <p>A query starts as soon as it is forked. The context on which the statement was built is not used:
+ * every query is executed on a new context obtained from the supplier passed to the constructor, which
+ * is closed as soon as the query is done.</p>
+ * <p>When one of the queries fails, the others are cancelled by aborting their connections, and
+ * {@link #join} throws the exception of the failed query. Closing the fan-out before {@link #join}
+ * has returned, also cancels all queries that are still running.</p>
+ */
+public class FanOut implements AutoCloseable {
+
+    private final Supplier<? extends BaseDAC> contexts;
+
+    private Executor executor;
+
+    private final List<Subtask<?>> subtasks;
+
+    private final AtomicReference<Throwable> failure;
+
+    private volatile boolean shutdown;
+
+    /**
+     * Create a fan-out which obtains a new context from the given supplier for every query
+     * (typically {@code provider::getContext}, see also {@link be.ugent.caagt.dao.DataAccessProvider#fanOut}).
+     */
+    public FanOut(Supplier<? extends BaseDAC> contexts) {
+        this.contexts = contexts;
+        this.executor = SerialExecutor.defaultExecutor();
+        this.subtasks = new CopyOnWriteArrayList<>();
+        this.failure = new AtomicReference<>();
+    }
+
+    /**
+     * Executor on which the queries are run. Uses virtual threads by default (when available).
+     */
+    public FanOut executor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Result of a single query of a fan-out. Available after {@link #join} has returned normally.
+     */
+    public static final class Subtask<T> {
+
+        public enum State {
+            /**
+             * The query has not yet finished, or was cancelled
+             */
+            UNAVAILABLE,
+            /**
+             * The query finished successfully
+             */
+            SUCCESS,
+            /**
+             * The query failed
+             */
+            FAILED
+        }
+
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private volatile State state = State.UNAVAILABLE;
+
+        private volatile BaseDAC context; // while running
+
+        private T result;
+
+        private Throwable exception;
+
+        private Subtask() {
+        }
+
+        public State state() {
+            return state;
+        }
+
+        /**
+         * The result of the query
+         * @throws IllegalStateException when the query did not finish successfully
+         */
+        public T get() {
+            if (state != State.SUCCESS) {
+                throw new IllegalStateException("Result of query is not available");
+            }
+            return result;
+        }
+
+        /**
+         * The exception thrown by the query
+         * @throws IllegalStateException when the query did not fail
+         */
+        public Throwable exception() {
+            if (state != State.FAILED) {
+                throw new IllegalStateException("Query did not fail");
+            }
+            return exception;
+        }
+
+        // aborts the connection of the query, if it is still running
+        private void abort() {
+            BaseDAC current = context;
+            if (current != null) {
+                try {
+                    current.getConnection().abort(Runnable::run);
+                } catch (SQLException | RuntimeException ex) {
+                    // connection already closed
+                }
+            }
+        }
+    }
+
+    /**
+     * Start executing the given query on a new context. The terminal function is applied to a copy of the
+     * statement that uses that context, and typically calls one of its terminal operations, e.g.,
+     * {@code s -> s.getList(converter)}. When the statement is a template, the subtask uses the values
+     * that are bound to its slots at the time of this call.
+     */
+    public <S extends AbstractQueryStatement, T> Subtask<T> fork(S statement, Function<S, T> terminal) {
+        // a snapshot has the same class as the statement
+        @SuppressWarnings("unchecked") S snapshot = (S) statement.snapshot();
+        Subtask<T> subtask = new Subtask<>();
+        subtasks.add(subtask);
+        if (shutdown) {
+            subtask.done.countDown();
+            return subtask;
+        }
+        try {
+            executor.execute(() -> run(subtask, snapshot, terminal));
+        } catch (RuntimeException ex) {
+            complete(subtask, null, ex);
+        }
+        return subtask;
+    }
+
+    private <S extends AbstractQueryStatement, T> void run(Subtask<T> subtask, S statement, Function<S, T> terminal) {
+        if (shutdown) {
+            subtask.done.countDown();
+            return;
+        }
+        T result = null;
+        Throwable exception = null;
+        try (BaseDAC context = contexts.get()) {
+            subtask.context = context;
+            if (shutdown) {
+                // cancelled while the context was obtained
+                subtask.context = null;
+            } else {
+                result = terminal.apply(AbstractSQLStatement.withContext(statement, context));
+            }
+            subtask.context = null;
+        } catch (RuntimeException | Error ex) {
+            subtask.context = null;
+            exception = ex;
+        }
+        complete(subtask, result, exception);
+    }
+
+    private <T> void complete(Subtask<T> subtask, T result, Throwable exception) {
+        if (exception == null) {
+            if (!shutdown) {
+                subtask.result = result;
+                subtask.state = Subtask.State.SUCCESS;
+            }
+        } else if (!shutdown && failure.compareAndSet(null, exception)) {
+            // the first failure, failures after shutdown are caused by the cancellation
+            subtask.exception = exception;
+            subtask.state = Subtask.State.FAILED;
+            shutdown();
+        }
+        subtask.done.countDown();
+    }
+
+    /**
+     * Cancels all queries that are still running, by aborting their connections.
+     */
+    public void shutdown() {
+        shutdown = true;
+        for (Subtask<?> subtask : subtasks) {
+            subtask.abort();
+        }
+    }
+
+    boolean isShutdown() {
+        return shutdown;
+    }
+
+    // number of queries forked
+    int size() {
+        return subtasks.size();
+    }
+
+    /**
+     * Waits until all queries have finished. Throws the exception of the first query that failed, if any.
+     */
+    public void join() throws DataAccessException {
+        try {
+            for (Subtask<?> subtask : subtasks) {
+                subtask.done.await();
+            }
+        } catch (InterruptedException ex) {
+            shutdown();
+            Thread.currentThread().interrupt();
+            throw new DACException("Interrupted while waiting for queries", ex);
+        }
+        Throwable exception = failure.get();
+        if (exception instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        } else if (exception instanceof Error error) {
+            throw error;
+        }
+    }
+
+    /**
+     * Cancels all queries that are still running, and waits until they have finished.
+     */
+    @Override
+    public void close() {
+        boolean interrupted = false;
+        for (Subtask<?> subtask : subtasks) {
+            if (subtask.done.getCount() > 0) {
+                shutdown();
+                break;
+            }
+        }
+        for (Subtask<?> subtask : subtasks) {
+            while (true) {
+                try {
+                    subtask.done.await();
+                    break;
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
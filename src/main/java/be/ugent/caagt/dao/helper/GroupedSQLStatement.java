@@ -24,7 +24,8 @@ public class GroupedSQLStatement extends AbstractOrderedStatement {
     GroupedSQLStatement(SelectSQLStatement src, String fields) {
         super();
         copyAux(src);
-        this.stat += " GROUP BY " + fields;
+        append(" GROUP BY ");
+        append(fields);
         this.numberOfHaving = 0;
     }
 
@@ -42,11 +43,11 @@ public class GroupedSQLStatement extends AbstractOrderedStatement {
             addAux(clause.getParameter());
         }
         if (numberOfHaving == 0) {
-            stat += " HAVING ";
+            append(" HAVING ");
         } else {
-            stat += " AND ";
+            append(" AND ");
         }
-        stat += clause.getClause();
+        append(clause.getClause());
         numberOfHaving++;
     }
 
@@ -62,6 +63,10 @@ public class GroupedSQLStatement extends AbstractOrderedStatement {
         return having(new WhereClause(clause));
     }
 
+    public GroupedSQLStatement having(String clause, Slot slot) {
+        return having(new WhereClause(clause, slot));
+    }
+
     public GroupedSQLStatement having(String clause, boolean parameter) {
         return having(new WhereClause(clause, new BooleanParameter(parameter)));
     }
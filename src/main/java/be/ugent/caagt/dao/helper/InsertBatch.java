@@ -0,0 +1,24 @@
+/*
+ * InsertBatch.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+/**
+ * Inserts many rows into the same table. Obtained by calling {@link InsertSQLStatement#batch}.
+ * Rows are added as follows:
+ * <pre>
+ *     batch.add(row -&gt; row.value("name", name).value("first_name", firstName));
+ * </pre>
+ */
+public class InsertBatch extends AbstractBatch<InsertSQLStatement, InsertSQLStatement, InsertBatch> {
+
+    InsertBatch(InsertSQLStatement prototype, int chunkSize) {
+        super(prototype, prototype.context, chunkSize);
+    }
+}
@@ -17,7 +17,8 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.List;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Common super class for inserts and upserts
@@ -26,7 +27,7 @@ abstract class InsertOrUpsert<T extends InsertOrUpsert<T>> {
     protected final String table;
     protected final BaseDAC context;
 
-    protected List<NamedParameter> values;
+    protected PersistentList<NamedParameter> values;
 
     InsertOrUpsert(String table, BaseDAC context) {
         this.table = table;
@@ -119,41 +120,135 @@ abstract class InsertOrUpsert<T extends InsertOrUpsert<T>> {
         return value (name, new EnumParameter<>(value, context.getEnumClassTranslator()));
     }
 
-    protected String getFullStatement() {
+    private String fullStatement; // memoized, see getFullStatement
+
+    /**
+     * The SQL text of this statement. Rendered on first use.
+     */
+    protected final String getFullStatement() {
+        String result = fullStatement;
+        if (result == null) {
+            result = getFullStatement(1);
+            fullStatement = result;
+        }
+        return result;
+    }
+
+    /**
+     * The SQL text of a statement that inserts the given number of rows with the same columns as this statement.
+     */
+    final String getFullStatement(int rows) {
         if (values.isEmpty()) {
             // TODO: make this syntactically impossible
             throw new IllegalArgumentException("insert/upsert expects at least one value() or key()");
         }
-        StringBuilder builder = new StringBuilder("INSERT INTO ");
-        builder.append(table).append(" (");
+        int length = 64 + table.length();
         for (NamedParameter value : values) {
-            builder.append(value.getName()).append(", ");
+            length += 3 * value.getName().length() + 16 + 2 * rows;
         }
-        builder.delete(builder.length() - 2, builder.length())
-                .append(") VALUES (");
+        StringBuilder builder = new StringBuilder(length);
+        render(builder, rows);
+        return builder.toString();
+    }
+
+    /**
+     * Target of the INSERT INTO clause. This implementation returns the table.
+     */
+    String getTarget() {
+        return table;
+    }
+
+    /**
+     * Appends the SQL text of this statement to the given builder, with the given number of rows in
+     * the VALUES clause.
+     */
+    protected void render(StringBuilder builder, int rows) {
+        builder.append("INSERT INTO ").append(getTarget()).append(" (");
+        boolean first = true;
         for (NamedParameter value : values) {
-            builder.append(value.getQuestionMark()).append(",");
+            if (!first) {
+                builder.append(", ");
+            }
+            builder.append(value.getName());
+            first = false;
+        }
+        builder.append(") VALUES ");
+        for (int row = 0; row < rows; row++) {
+            if (row > 0) {
+                builder.append(",");
+            }
+            builder.append("(");
+            first = true;
+            for (NamedParameter value : values) {
+                if (!first) {
+                    builder.append(",");
+                }
+                builder.append(value.getQuestionMark());
+                first = false;
+            }
+            builder.append(")");
         }
-        builder.deleteCharAt(builder.length() - 1)
-                .append(")");
-        return builder.toString();
+    }
+
+    /**
+     * Whether the given statement has the same SQL text as this statement, i.e., inserts into the same
+     * columns of the same table with the same placeholders. Cheaper than comparing the rendered statements.
+     */
+    boolean hasSameStatement(T other) {
+        if (!table.equals(other.table) || values.size() != other.values.size()) {
+            return false;
+        }
+        Iterator<NamedParameter> iterator = other.values.iterator();
+        for (NamedParameter value : values) {
+            NamedParameter otherValue = iterator.next();
+            if (!value.getName().equals(otherValue.getName()) ||
+                    !value.getQuestionMark().equals(otherValue.getQuestionMark())) {
+                return false;
+            }
+        }
+        return true;
     }
 
     protected void initParameters(PreparedStatement ps) throws SQLException {
-        int index = 1;
+        setParameters(ps, 1);
+    }
+
+    /**
+     * Fills in the parameters of this statement, starting at the given index. Returns the index
+     * of the next parameter.
+     */
+    int setParameters(PreparedStatement ps, int index) throws SQLException {
         for (NamedParameter value : values) {
             value.getParameter().setParameter(ps, index);
             index++;
         }
+        return index;
     }
 
     /**
      * Execute the insert or upsert statement
      */
     public void execute() throws DataAccessException {
-        try (PreparedStatement ps = context.getConnection().prepareStatement(getFullStatement())) {
+        executeWithCount();
+    }
+
+    /**
+     * Asynchronous version of {@link #execute()}.
+     * @see BaseDAC#async(Runnable)
+     */
+    public CompletableFuture<Void> executeAsync() {
+        return context.async(this::execute);
+    }
+
+    /**
+     * Execute the insert or upsert statement and return the number of rows that were inserted or updated.
+     * For an upsert this is 0 when a conflicting row was left unchanged.
+     */
+    public int executeWithCount() throws DataAccessException {
+        try (CachedStatement cs = context.prepareStatement(getFullStatement())) {
+            PreparedStatement ps = cs.get();
             initParameters(ps);
-            ps.executeUpdate();
+            return ps.executeUpdate();
         } catch (SQLException ex) {
             throw BaseDAO.convert(ex);
         }
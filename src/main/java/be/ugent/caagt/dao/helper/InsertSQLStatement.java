@@ -11,8 +11,11 @@ package be.ugent.caagt.dao.helper;
 
 import be.ugent.caagt.dao.DataAccessException;
 
-import java.sql.*;
-import java.util.ArrayList;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 /**
  * Represents an insert statement. Allows value-clauses. Finalize by calling {@link #execute} or {@link #create}.
@@ -21,30 +24,46 @@ public class InsertSQLStatement extends InsertOrUpsert<InsertSQLStatement> {
 
     InsertSQLStatement(String table, BaseDAC context) {
         super(table,context);
-        this.values = new ArrayList<>();
+        this.values = PersistentList.empty();
     }
 
     public InsertSQLStatement value(String name, Parameter value) {
         InsertSQLStatement result = new InsertSQLStatement(table, context);
-        result.values = new ArrayList<>(this.values);
-        result.values.add(new NamedParameter(name, value));
+        result.values = values.append(new NamedParameter(name, value));
         return result;
     }
 
     public InsertSQLStatement value(NamedParameterList parameters) {
         InsertSQLStatement result = new InsertSQLStatement(table, context);
-        result.values = new ArrayList<>(this.values);
-        parameters.addToParameterList(result.values);
+        result.values = parameters.addToParameterList(values);
         return result;
     }
 
+    /**
+     * Freezes this statement into a template that can be executed repeatedly with different values
+     * for its slots.
+     * @see Slot
+     */
+    public InsertTemplate template() {
+        return new InsertTemplate(this);
+    }
+
+    /**
+     * Creates a batch that inserts many rows into the same table, sent to the database in chunks
+     * of the given size. Values already added to this statement are shared by all rows of the batch.
+     */
+    public InsertBatch batch(int chunkSize) {
+        return new InsertBatch(this, chunkSize);
+    }
+
     /**
      * Execute an insert and return the generated key as an int. Assumes the generated key is the first column of
      * the table.
      * @see #create(String)
      */
     public int create() throws DataAccessException {
-        try (PreparedStatement ps = context.getConnection().prepareStatement(getFullStatement(), Statement.RETURN_GENERATED_KEYS)) {
+        try (CachedStatement cs = context.prepareStatement(getFullStatement(), StatementCache.ALL_KEYS)) {
+            PreparedStatement ps = cs.get();
             initParameters(ps);
             ps.executeUpdate();
             try (ResultSet rs = ps.getGeneratedKeys()) {
@@ -59,16 +78,33 @@ public class InsertSQLStatement extends InsertOrUpsert<InsertSQLStatement> {
         }
     }
 
+    /**
+     * Asynchronous version of {@link #create()}.
+     * @see BaseDAC#async(Supplier)
+     */
+    public CompletableFuture<Integer> createAsync() {
+        return context.async(() -> create());
+    }
+
+    /**
+     * Asynchronous version of {@link #create(String)}.
+     * @see BaseDAC#async(Supplier)
+     */
+    public CompletableFuture<Integer> createAsync(String columnName) {
+        return context.async(() -> create(columnName));
+    }
+
     /**
      * Same as {@link #create()} but returns the field explicitly named as a parameter. Useful when the
      * generated key is not in the first column of the table. Might also be slightly faster because fewer data
      * is sent from server to client.
      */
     public int create(String columnName) throws DataAccessException {
-        try (PreparedStatement ps = context.getConnection().prepareStatement(
+        try (CachedStatement cs = context.prepareStatement(
                 getFullStatement(),
-                new String[]{ columnName.toLowerCase() }    // BUG IN POSTGRES?
+                columnName.toLowerCase()    // BUG IN POSTGRES?
                 )) {
+            PreparedStatement ps = cs.get();
             initParameters(ps);
             ps.executeUpdate();
             try (ResultSet rs = ps.getGeneratedKeys()) {
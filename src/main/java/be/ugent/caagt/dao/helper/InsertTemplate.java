@@ -0,0 +1,156 @@
+/*
+ * InsertTemplate.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import be.ugent.caagt.dao.DataAccessException;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Insert statement that can be executed repeatedly with different values for its slots. Obtained by
+ * calling {@link InsertSQLStatement#template()}.
+ * <p>Like the data access context it belongs to, a template should not be shared between threads.</p>
+ * @see Slot
+ */
+public class InsertTemplate implements SupportsBind<InsertTemplate> {
+
+    private final BaseDAC context;
+
+    private final String statement;
+
+    private final SlotBinding binding;
+
+    InsertTemplate(InsertSQLStatement src) {
+        this.context = src.context;
+        this.statement = src.getFullStatement();
+        PersistentList<Parameter> parameters = PersistentList.empty();
+        for (NamedParameter value : src.values) {
+            parameters = parameters.append(value.getParameter());
+        }
+        this.binding = new SlotBinding(parameters);
+    }
+
+    /**
+     * Execute the insert statement
+     */
+    public void execute() throws DataAccessException {
+        try (CachedStatement cs = context.prepareStatement(statement)) {
+            PreparedStatement ps = cs.get();
+            binding.setParameters(ps);
+            ps.executeUpdate();
+        } catch (SQLException ex) {
+            throw BaseDAO.convert(ex);
+        }
+    }
+
+    /**
+     * Execute the insert statement and return the generated key as an int.
+     * @see InsertSQLStatement#create()
+     */
+    public int create() throws DataAccessException {
+        try (CachedStatement cs = context.prepareStatement(statement, StatementCache.ALL_KEYS)) {
+            PreparedStatement ps = cs.get();
+            binding.setParameters(ps);
+            ps.executeUpdate();
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                } else {
+                    throw new IllegalStateException("No key generated by insert statement");
+                }
+            }
+        } catch (SQLException ex) {
+            throw BaseDAO.convert(ex);
+        }
+    }
+
+    /**
+     * Execute the insert statement and return the generated key in the given column.
+     * @see InsertSQLStatement#create(String)
+     */
+    public int create(String columnName) throws DataAccessException {
+        try (CachedStatement cs = context.prepareStatement(statement, columnName.toLowerCase())) {
+            PreparedStatement ps = cs.get();
+            binding.setParameters(ps);
+            ps.executeUpdate();
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                if (rs.next()) {
+                    return rs.getInt(columnName);
+                } else {
+                    throw new IllegalStateException("No key generated by insert statement");
+                }
+            }
+        } catch (SQLException ex) {
+            throw BaseDAO.convert(ex);
+        }
+    }
+
+    @Override
+    public InsertTemplate bind(String name, Parameter value) {
+        binding.bind(binding.slot(name), value);
+        return this;
+    }
+
+    @Override
+    public InsertTemplate bind(int position, Parameter value) {
+        binding.bind(binding.slot(position), value);
+        return this;
+    }
+
+    @Override
+    public InsertTemplate bind(String name, int value) {
+        binding.bind(binding.slot(name), value);
+        return this;
+    }
+
+    @Override
+    public InsertTemplate bind(int position, int value) {
+        binding.bind(binding.slot(position), value);
+        return this;
+    }
+
+    @Override
+    public InsertTemplate bind(String name, double value) {
+        binding.bind(binding.slot(name), value);
+        return this;
+    }
+
+    @Override
+    public InsertTemplate bind(int position, double value) {
+        binding.bind(binding.slot(position), value);
+        return this;
+    }
+
+    @Override
+    public InsertTemplate bind(String name, boolean value) {
+        binding.bind(binding.slot(name), value);
+        return this;
+    }
+
+    @Override
+    public InsertTemplate bind(int position, boolean value) {
+        binding.bind(binding.slot(position), value);
+        return this;
+    }
+
+    @Override
+    public InsertTemplate bind(String name, String value) {
+        binding.bind(binding.slot(name), value);
+        return this;
+    }
+
+    @Override
+    public InsertTemplate bind(int position, String value) {
+        binding.bind(binding.slot(position), value);
+        return this;
+    }
+}
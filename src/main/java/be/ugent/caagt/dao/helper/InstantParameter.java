@@ -18,7 +18,7 @@ import java.time.Instant;
 /**
  * Implementation of {@link Parameter} for instants.
  */
-class InstantParameter implements Parameter {
+class InstantParameter implements TextParameter {
 
     private final Instant par;
 
@@ -34,4 +34,9 @@ class InstantParameter implements Parameter {
             ps.setTimestamp(index, Timestamp.from(par));
         }
     }
+
+    @Override
+    public String getText() {
+        return par == null ? null : par.toString();
+    }
 }
@@ -0,0 +1,49 @@
+/*
+ * IntArrayBuilder.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of ints, to collect primitive values without boxing.
+ */
+final class IntArrayBuilder {
+
+    private int[] elements;
+
+    private int size;
+
+    IntArrayBuilder() {
+        this(16);
+    }
+
+    IntArrayBuilder(int capacity) {
+        this.elements = new int[Math.max(capacity, 1)];
+    }
+
+    void add(int value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        elements[size++] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * IntDoubleMap.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.util.Arrays;
+
+/**
+ * Map with int keys and double values, which boxes neither. Iterates in insertion order. Entries cannot be removed.
+ * @see AbstractQueryStatement#getIntDoubleMap
+ */
+public final class IntDoubleMap {
+
+    /**
+     * Processes a single entry of the map
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, double value);
+    }
+
+    private final IntKeyIndex index;
+
+    private double[] values;
+
+    public IntDoubleMap() {
+        this(16);
+    }
+
+    public IntDoubleMap(int expectedSize) {
+        this.index = new IntKeyIndex(expectedSize);
+        this.values = new double[index.capacity()];
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public boolean isEmpty() {
+        return index.size() == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return index.indexOf(key) >= 0;
+    }
+
+    /**
+     * The value for the given key, or 0.0 when the key is not present.
+     */
+    public double get(int key) {
+        return getOrDefault(key, 0.0);
+    }
+
+    public double getOrDefault(int key, double defaultValue) {
+        int position = index.indexOf(key);
+        return position < 0 ? defaultValue : values[position];
+    }
+
+    /**
+     * Associates the value with the given key.
+     */
+    public void put(int key, double value) {
+        int position = index.add(key);
+        if (values.length < index.capacity()) {
+            values = Arrays.copyOf(values, index.capacity());
+        }
+        values[position] = value;
+    }
+
+    /**
+     * The keys of this map, in insertion order.
+     */
+    public int[] keys() {
+        return index.keys();
+    }
+
+    /**
+     * The values of this map, in insertion order.
+     */
+    public double[] values() {
+        return Arrays.copyOf(values, index.size());
+    }
+
+    /**
+     * Processes all entries, in insertion order.
+     */
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < index.size(); i++) {
+            consumer.accept(index.keyAt(i), values[i]);
+        }
+    }
+}
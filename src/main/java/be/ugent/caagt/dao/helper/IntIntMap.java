@@ -0,0 +1,98 @@
+/*
+ * IntIntMap.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.util.Arrays;
+
+/**
+ * Map with int keys and int values, which boxes neither. Iterates in insertion order. Entries cannot be removed.
+ * @see AbstractQueryStatement#getIntIntMap
+ */
+public final class IntIntMap {
+
+    /**
+     * Processes a single entry of the map
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, int value);
+    }
+
+    private final IntKeyIndex index;
+
+    private int[] values;
+
+    public IntIntMap() {
+        this(16);
+    }
+
+    public IntIntMap(int expectedSize) {
+        this.index = new IntKeyIndex(expectedSize);
+        this.values = new int[index.capacity()];
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public boolean isEmpty() {
+        return index.size() == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return index.indexOf(key) >= 0;
+    }
+
+    /**
+     * The value for the given key, or 0 when the key is not present.
+     */
+    public int get(int key) {
+        return getOrDefault(key, 0);
+    }
+
+    public int getOrDefault(int key, int defaultValue) {
+        int position = index.indexOf(key);
+        return position < 0 ? defaultValue : values[position];
+    }
+
+    /**
+     * Associates the value with the given key.
+     */
+    public void put(int key, int value) {
+        int position = index.add(key);
+        if (values.length < index.capacity()) {
+            values = Arrays.copyOf(values, index.capacity());
+        }
+        values[position] = value;
+    }
+
+    /**
+     * The keys of this map, in insertion order.
+     */
+    public int[] keys() {
+        return index.keys();
+    }
+
+    /**
+     * The values of this map, in insertion order.
+     */
+    public int[] values() {
+        return Arrays.copyOf(values, index.size());
+    }
+
+    /**
+     * Processes all entries, in insertion order.
+     */
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < index.size(); i++) {
+            consumer.accept(index.keyAt(i), values[i]);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * IntObjectMap.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Map with int keys, which does not box its keys. Iterates in insertion order. Entries cannot be removed.
+ * @see AbstractQueryStatement#getIntMap
+ */
+public final class IntObjectMap<V> {
+
+    /**
+     * Processes a single entry of the map
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(int key, V value);
+    }
+
+    private final IntKeyIndex index;
+
+    private Object[] values;
+
+    public IntObjectMap() {
+        this(16);
+    }
+
+    public IntObjectMap(int expectedSize) {
+        this.index = new IntKeyIndex(expectedSize);
+        this.values = new Object[index.capacity()];
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public boolean isEmpty() {
+        return index.size() == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return index.indexOf(key) >= 0;
+    }
+
+    /**
+     * The value for the given key, or null when the key is not present.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int position = index.indexOf(key);
+        return position < 0 ? null : (V) values[position];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(int key, V defaultValue) {
+        int position = index.indexOf(key);
+        return position < 0 ? defaultValue : (V) values[position];
+    }
+
+    /**
+     * Associates the value with the given key. Returns the previous value, or null when there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        int position = index.add(key);
+        if (values.length < index.capacity()) {
+            values = Arrays.copyOf(values, index.capacity());
+        }
+        V previous = (V) values[position];
+        values[position] = value;
+        return previous;
+    }
+
+    /**
+     * The keys of this map, in insertion order.
+     */
+    public int[] keys() {
+        return index.keys();
+    }
+
+    /**
+     * The values of this map, in insertion order.
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        return (List<V>) Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(values, index.size())));
+    }
+
+    /**
+     * Processes all entries, in insertion order.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> consumer) {
+        for (int i = 0; i < index.size(); i++) {
+            consumer.accept(index.keyAt(i), (V) values[i]);
+        }
+    }
+}
@@ -15,7 +15,7 @@ import java.sql.SQLException;
 /**
  * Implementation of {@link Parameter} for integers.
  */
-public class IntParameter implements Parameter {
+public class IntParameter implements TextParameter {
 
     private final int par;
 
@@ -27,4 +27,9 @@ public class IntParameter implements Parameter {
     public void setParameter(PreparedStatement ps, int index) throws SQLException{
         ps.setInt(index, par);
     }
+
+    @Override
+    public String getText() {
+        return Integer.toString(par);
+    }
 }
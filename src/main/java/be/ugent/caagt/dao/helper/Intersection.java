@@ -21,26 +21,26 @@ public class Intersection extends AbstractOrderedStatement {
     }
 
     Intersection(List<SelectSQLStatement> list, BaseDAC context) {
-        super (createStatement(list), context);
-        for (SelectSQLStatement selectSQLStatement : list) {
-            params.addAll(selectSQLStatement.params);
+        super(opening(list), context);
+        int size = list.size();
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                append(" INTERSECT ");
+            }
+            SelectSQLStatement selectSQLStatement = list.get(i);
+            appendAll(selectSQLStatement.getFragments());
+            params = params.appendAll(selectSQLStatement.params);
+        }
+        if (size > 1) {
+            append(")");
         }
     }
 
-    private static String createStatement (List<SelectSQLStatement> list) {
-        int size = list.size();
-        if (size == 0) {
+    private static String opening(List<SelectSQLStatement> list) {
+        if (list.isEmpty()) {
             throw new IllegalArgumentException("There must be at least one query to intersect");
-        } else if (size == 1) {
-            return list.get(0).stat;
-        } else {
-            StringBuilder builder = new StringBuilder();
-            builder.append("(").append(list.get(0).stat);
-            for (int i = 1; i < size; i++) {
-                builder.append(" INTERSECT ").append(list.get(i).stat);
-            }
-            return builder.append(")").toString();
         }
+        return list.size() == 1 ? "" : "(";
     }
 
     @Override
@@ -0,0 +1,37 @@
+/*
+ * KeyParameter.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Implementation of {@link Parameter} for a value in text format whose type is not specified,
+ * and hence is inferred by the database from the context in which it is used.
+ */
+class KeyParameter implements TextParameter {
+
+    private final String par;
+
+    public KeyParameter(String par) {
+        this.par = par;
+    }
+
+    @Override
+    public void setParameter(PreparedStatement ps, int index) throws SQLException {
+        ps.setObject(index, par, Types.OTHER);
+    }
+
+    @Override
+    public String getText() {
+        return par;
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * KeysetSQLStatement.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import be.ugent.caagt.dao.KeysetPage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Represents a statement that retrieves a single page of an ordered query, starting after the row with
+ * given values of the order by fields (keyset or 'seek' pagination). Unlike {@link LimitedSQLStatement}
+ * the database does not need to skip the rows of the earlier pages, so all pages are retrieved equally fast.
+ * <p>The original query is used as a subquery. Hence the order by fields must be (unqualified) names of
+ * columns in the result of that query, must not be null and together must identify a row uniquely.</p>
+ */
+public class KeysetSQLStatement extends AbstractQueryStatement {
+
+    private static final String TABLE_ID = "__daohelper__keyset";
+
+    private static final int TOKEN_VERSION = 1;
+
+    private final PersistentList<OrderByClause> clauses;
+
+    private final int pageSize;
+
+    // statement without the limit
+    private final PersistentList<String> base;
+
+    KeysetSQLStatement(OrderedSQLStatement src, PersistentList<String> source,
+                       PersistentList<OrderByClause> clauses, String token, int pageSize) {
+        super("SELECT * FROM (", src.context);
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        this.clauses = clauses;
+        this.pageSize = pageSize;
+        appendAll(source);
+        append(") AS ");
+        append(TABLE_ID);
+        this.params = src.params;
+        if (token != null) {
+            String[] keys = decodeToken(token);
+            if (keys.length != clauses.size()) {
+                throw new IllegalArgumentException("Continuation token does not belong to this query");
+            }
+            appendPredicate(keys);
+        }
+        String separator = " ORDER BY ";
+        for (OrderByClause clause : clauses) {
+            append(separator);
+            append(clause.getField());
+            append(clause.isAscending() ? " ASC" : " DESC");
+            separator = ", ";
+        }
+        this.base = getFragments();
+        append(" FETCH FIRST " + pageSize + " ROWS ONLY");
+    }
+
+    private static String comparison(OrderByClause clause) {
+        return clause.isAscending() ? " > ?" : " < ?";
+    }
+
+    private boolean sameDirection() {
+        boolean ascending = clauses.get(0).isAscending();
+        for (OrderByClause clause : clauses) {
+            if (clause.isAscending() != ascending) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Restricts the query to the rows that come after the row with the given keys
+    private void appendPredicate(String[] keys) {
+        int size = keys.length;
+        append(" WHERE ");
+        if (size == 1) {
+            append(clauses.get(0).getField());
+            append(comparison(clauses.get(0)));
+            addAux(new KeyParameter(keys[0]));
+        } else if (sameDirection()) {
+            // row value comparison, which can use a multicolumn index
+            append("(");
+            for (int i = 0; i < size; i++) {
+                append(i == 0 ? "" : ", ");
+                append(clauses.get(i).getField());
+                addAux(new KeyParameter(keys[i]));
+            }
+            append(clauses.get(0).isAscending() ? ") > (?" : ") < (?");
+            append(", ?".repeat(size - 1));
+            append(")");
+        } else {
+            // (a > ?) OR (a = ? AND b < ?) OR ...
+            for (int i = 0; i < size; i++) {
+                append(i == 0 ? "(" : " OR (");
+                for (int j = 0; j < i; j++) {
+                    append(clauses.get(j).getField());
+                    append(" = ? AND ");
+                    addAux(new KeyParameter(keys[j]));
+                }
+                append(clauses.get(i).getField());
+                append(comparison(clauses.get(i)));
+                append(")");
+                addAux(new KeyParameter(keys[i]));
+            }
+        }
+    }
+
+    /**
+     * Retrieve the page, together with a token for the next page.
+     */
+    public <T> KeysetPage<T> getKeysetPage(ResultSetConverter<T> rsc) {
+        // one extra row to determine whether there is a next page
+        String newStatement = render(base) + " FETCH FIRST " + (pageSize + 1) + " ROWS ONLY";
+        try (CachedStatement cs = context.prepareStatement(newStatement)) {
+            PreparedStatement ps = cs.get();
+            initParameters(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                List<T> list = new ArrayList<>();
+                String[] keys = null;
+                while (list.size() < pageSize && rs.next()) {
+                    list.add(rsc.convert(rs));
+                    if (list.size() == pageSize) {
+                        keys = getKeys(rs);
+                    }
+                }
+                String nextToken = keys != null && rs.next() ? encodeToken(keys) : null;
+                return new KeysetPage<>(list, pageSize, nextToken);
+            }
+        } catch (SQLException ex) {
+            throw BaseDAO.convert(ex);
+        }
+    }
+
+    private String[] getKeys(ResultSet rs) throws SQLException {
+        String[] keys = new String[clauses.size()];
+        for (int i = 0; i < keys.length; i++) {
+            String field = clauses.get(i).getField();
+            keys[i] = rs.getString(field);
+            if (keys[i] == null) {
+                throw new IllegalStateException("Keyset pagination does not allow null values in " + field);
+            }
+        }
+        return keys;
+    }
+
+    static String encodeToken(String[] keys) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(TOKEN_VERSION);
+            out.writeShort(keys.length);
+            for (String key : keys) {
+                out.writeUTF(key);
+            }
+            out.flush();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex); // does not happen for in-memory streams
+        }
+    }
+
+    static String[] decodeToken(String token) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)));
+            if (in.readByte() != TOKEN_VERSION) {
+                throw new IOException("Unknown token version");
+            }
+            String[] keys = new String[in.readShort()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = in.readUTF();
+            }
+            if (in.available() > 0) {
+                throw new IOException("Trailing data in token");
+            }
+            return keys;
+        } catch (IOException | IllegalArgumentException ex) { // IllegalArgumentException for bad Base64
+            throw new IllegalArgumentException("Invalid continuation token", ex);
+        }
+    }
+}
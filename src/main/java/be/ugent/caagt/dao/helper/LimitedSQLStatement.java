@@ -16,6 +16,8 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 /**
  * Represents a statement with offset and limit.
@@ -24,47 +26,60 @@ public class LimitedSQLStatement extends AbstractQueryStatement {
 
     private final int limit;
 
+    // statement without offset and limit
+    private final PersistentList<String> base;
+
+    // offset and limit part of the statement
+    private final String range;
+
     LimitedSQLStatement(OrderedSQLStatement src, int limit, int offset) {
         copyAux(src);
         this.limit = limit;
-        stat += " OFFSET " + offset + " ROWS";
-        if (limit >= 0) {
-            stat += " FETCH FIRST " + limit + " ROWS ONLY";
-        }
+        this.base = getFragments();
+        this.range = limit >= 0
+                ? "OFFSET " + offset + " ROWS FETCH FIRST " + limit + " ROWS ONLY"
+                : "OFFSET " + offset + " ROWS";
+        append(" ");
+        append(range);
     }
 
+    // Fixed identifiers, so that repeated page queries have the same SQL and can reuse a cached prepared statement
+    private static final String COUNT_ID = "__daohelper__count";
+
+    private static final String TABLE_ID = "__daohelper__page";
+
     // Adds the total count to the query result of a compound statement
-    private String createPageStatementCompound(String cntId) {
-        int lastPos = stat.lastIndexOf("OFFSET");
-         /* Note: there will always be an OFFSET because the statement can
-           (currently) only be constructed from a limited statement. */
-        return "SELECT *, COUNT(*) OVER () AS" + cntId +
-                "FROM (" + stat.substring(0, lastPos) + ") AS " + getUniqueId() + " " +
-                stat.substring(lastPos);
+    private String createPageStatementCompound() {
+        return "SELECT *, COUNT(*) OVER () AS " + COUNT_ID +
+                " FROM (" + render(base) + ") AS " + TABLE_ID + " " + range;
     }
 
     // Adds the total count to the query result using a materialized
     // CTE for reasons of speed (making a considerable difference!)
-    private String createPageStatementWith(String cntId) {
-        int lastPos = stat.lastIndexOf("OFFSET");
-        // TODO avoid splitting strings by a better class structure
-        String tableId = getUniqueId();
-        return "WITH " + tableId + " AS MATERIALIZED(" + stat.substring(0, lastPos) +
-                ") SELECT *, COUNT(*) OVER () AS " + cntId + " FROM " + tableId + " " +
-                stat.substring(lastPos);
+    private String createPageStatementWith() {
+        return "WITH " + TABLE_ID + " AS MATERIALIZED(" + render(base) +
+                ") SELECT *, COUNT(*) OVER () AS " + COUNT_ID + " FROM " + TABLE_ID + " " + range;
+    }
+
+    /**
+     * Asynchronous version of {@link #getPage(ResultSetConverter)}.
+     * @see BaseDAC#async(Supplier)
+     */
+    public <T> CompletableFuture<Page<T>> getPageAsync(ResultSetConverter<T> rsc) {
+        return context.async(() -> getPage(rsc));
     }
 
     public <T> Page<T> getPage(ResultSetConverter<T> rsc) {
-        String cntId = getUniqueId();
-        String newStatement = isCompoundQuery() ? createPageStatementCompound(cntId) : createPageStatementWith(cntId);
-        try (PreparedStatement ps = context.getConnection().prepareStatement(newStatement)) {
+        String newStatement = isCompoundQuery() ? createPageStatementCompound() : createPageStatementWith();
+        try (CachedStatement cs = context.prepareStatement(newStatement)) {
+            PreparedStatement ps = cs.get();
             initParameters(ps);
             try (ResultSet rs = ps.executeQuery()) {
                 List<T> list = new ArrayList<>();
                 int fullSize = 0;
                 if (rs.next()) {
                     list.add(rsc.convert(rs));
-                    fullSize = rs.getInt(cntId);
+                    fullSize = rs.getInt(COUNT_ID);
                     while (rs.next()) {
                         list.add(rsc.convert(rs));
                     }
@@ -15,7 +15,7 @@ import java.time.LocalDate;
 /**
  * Implementation of {@link Parameter} for local date times.
  */
-class LocalDateParameter implements Parameter {
+class LocalDateParameter implements TextParameter {
 
     private final LocalDate par;
 
@@ -31,4 +31,9 @@ class LocalDateParameter implements Parameter {
             ps.setDate(index, Date.valueOf(par));
         }
     }
+
+    @Override
+    public String getText() {
+        return par == null ? null : par.toString();
+    }
 }
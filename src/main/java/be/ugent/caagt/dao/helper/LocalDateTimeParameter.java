@@ -18,7 +18,7 @@ import java.time.LocalDateTime;
 /**
  * Implementation of {@link Parameter} for local date times.
  */
-class LocalDateTimeParameter implements Parameter {
+class LocalDateTimeParameter implements TextParameter {
 
     private final LocalDateTime par;
 
@@ -34,4 +34,9 @@ class LocalDateTimeParameter implements Parameter {
             ps.setTimestamp(index, Timestamp.valueOf(par));
         }
     }
+
+    @Override
+    public String getText() {
+        return par == null ? null : par.toString();
+    }
 }
@@ -18,7 +18,7 @@ import java.time.LocalTime;
 /**
  * Implementation of {@link Parameter} for local date times.
  */
-class LocalTimeParameter implements Parameter {
+class LocalTimeParameter implements TextParameter {
 
     private final LocalTime par;
 
@@ -34,4 +34,9 @@ class LocalTimeParameter implements Parameter {
             ps.setTime(index, Time.valueOf(par));
         }
     }
+
+    @Override
+    public String getText() {
+        return par == null ? null : par.toString();
+    }
 }
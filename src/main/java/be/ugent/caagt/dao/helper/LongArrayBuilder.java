@@ -0,0 +1,49 @@
+/*
+ * LongArrayBuilder.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of longs, to collect primitive values without boxing.
+ */
+final class LongArrayBuilder {
+
+    private long[] elements;
+
+    private int size;
+
+    LongArrayBuilder() {
+        this(16);
+    }
+
+    LongArrayBuilder(int capacity) {
+        this.elements = new long[Math.max(capacity, 1)];
+    }
+
+    void add(long value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        elements[size++] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    long[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * LongKeyIndex.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.util.Arrays;
+
+/**
+ * Keys of a long-keyed map, in insertion order, together with an open addressing hash table that maps
+ * every key to its position in that order. The values of the map are stored by the map itself, in arrays
+ * indexed by that same position.
+ */
+final class LongKeyIndex {
+
+    private long[] keys;
+
+    private int[] table; // position + 1 of the key that hashes to this slot, or 0 when empty
+
+    private int size;
+
+    LongKeyIndex(int capacity) {
+        this.keys = new long[Math.max(capacity, 4)];
+        this.table = new int[tableSize(keys.length)];
+    }
+
+    // power of two, at least twice the capacity, so that the load factor stays below 1/2
+    static int tableSize(int capacity) {
+        return Integer.highestOneBit(Math.max(capacity, 4) * 2 - 1) << 1;
+    }
+
+    static int hash(long key) {
+        int h = (int) (key ^ (key >>> 32)) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Capacity of the key array. Maps must make sure their value arrays are at least this long.
+     */
+    int capacity() {
+        return keys.length;
+    }
+
+    long keyAt(int position) {
+        return keys[position];
+    }
+
+    long[] keys() {
+        return Arrays.copyOf(keys, size);
+    }
+
+    /**
+     * Position of the given key, or -1 when the key is not present.
+     */
+    int indexOf(long key) {
+        int mask = table.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) {
+                return -1;
+            } else if (keys[entry - 1] == key) {
+                return entry - 1;
+            }
+        }
+    }
+
+    /**
+     * Position of the given key. The key is added when it is not yet present, in which case the
+     * result is equal to the (old) size.
+     */
+    int add(long key) {
+        int mask = table.length - 1;
+        int slot = hash(key) & mask;
+        for (int entry = table[slot]; entry != 0; entry = table[slot]) {
+            if (keys[entry - 1] == key) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == keys.length) {
+            grow();
+            return add(key);
+        }
+        keys[size] = key;
+        table[slot] = ++size;
+        return size - 1;
+    }
+
+    private void grow() {
+        keys = Arrays.copyOf(keys, keys.length * 2);
+        table = new int[tableSize(keys.length)];
+        int mask = table.length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = hash(keys[i]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+    }
+}
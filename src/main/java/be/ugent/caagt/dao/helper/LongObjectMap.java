@@ -0,0 +1,108 @@
+/*
+ * LongObjectMap.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Map with long keys, which does not box its keys. Iterates in insertion order. Entries cannot be removed.
+ * @see AbstractQueryStatement#getLongMap
+ */
+public final class LongObjectMap<V> {
+
+    /**
+     * Processes a single entry of the map
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    private final LongKeyIndex index;
+
+    private Object[] values;
+
+    public LongObjectMap() {
+        this(16);
+    }
+
+    public LongObjectMap(int expectedSize) {
+        this.index = new LongKeyIndex(expectedSize);
+        this.values = new Object[index.capacity()];
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public boolean isEmpty() {
+        return index.size() == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return index.indexOf(key) >= 0;
+    }
+
+    /**
+     * The value for the given key, or null when the key is not present.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int position = index.indexOf(key);
+        return position < 0 ? null : (V) values[position];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(long key, V defaultValue) {
+        int position = index.indexOf(key);
+        return position < 0 ? defaultValue : (V) values[position];
+    }
+
+    /**
+     * Associates the value with the given key. Returns the previous value, or null when there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        int position = index.add(key);
+        if (values.length < index.capacity()) {
+            values = Arrays.copyOf(values, index.capacity());
+        }
+        V previous = (V) values[position];
+        values[position] = value;
+        return previous;
+    }
+
+    /**
+     * The keys of this map, in insertion order.
+     */
+    public long[] keys() {
+        return index.keys();
+    }
+
+    /**
+     * The values of this map, in insertion order.
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        return (List<V>) Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(values, index.size())));
+    }
+
+    /**
+     * Processes all entries, in insertion order.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> consumer) {
+        for (int i = 0; i < index.size(); i++) {
+            consumer.accept(index.keyAt(i), (V) values[i]);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * LongParameter.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Implementation of {@link Parameter} for long integers.
+ */
+public class LongParameter implements TextParameter {
+
+    private final long par;
+
+    public LongParameter(long par) {
+        this.par = par;
+    }
+
+    @Override
+    public void setParameter(PreparedStatement ps, int index) throws SQLException{
+        ps.setLong(index, par);
+    }
+
+    @Override
+    public String getText() {
+        return Long.toString(par);
+    }
+}
@@ -13,21 +13,18 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.ArrayList;
-import java.util.List;
 
 public class NamedParameterList extends StatementModifier {
 
-    private List<NamedParameter> parameters;
+    private PersistentList<NamedParameter> parameters;
 
     public NamedParameterList() {
-        parameters = new ArrayList<>();
+        parameters = PersistentList.empty();
     }
 
     public NamedParameterList with(NamedParameter name) {
         NamedParameterList result = new NamedParameterList();
-        result.parameters = new ArrayList<>(parameters);
-        result.parameters.add(name);
+        result.parameters = parameters.append(name);
         return result;
     }
 
@@ -38,8 +35,8 @@ public class NamedParameterList extends StatementModifier {
         }
     }
 
-    void addToParameterList (List<NamedParameter> list) {
-        list.addAll(parameters);
+    PersistentList<NamedParameter> addToParameterList (PersistentList<NamedParameter> list) {
+        return list.appendAll(parameters);
     }
 
     void addToSetList (UpdateSQLStatement statement) {
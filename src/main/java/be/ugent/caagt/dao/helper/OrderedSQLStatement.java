@@ -14,9 +14,18 @@ package be.ugent.caagt.dao.helper;
  */
 public class OrderedSQLStatement extends AbstractOrderedStatement {
 
+    // statement without the order by clauses
+    private PersistentList<String> source;
+
+    private PersistentList<OrderByClause> clauses;
+
     OrderedSQLStatement (AbstractSQLStatement src, OrderByClause clause) {
         copyAux(src);
-        stat += " ORDER BY " + clause.getField() + (clause.isAscending() ? " ASC" : " DESC");
+        this.source = getFragments();
+        this.clauses = PersistentList.<OrderByClause>empty().append(clause);
+        append(" ORDER BY ");
+        append(clause.getField());
+        append(clause.isAscending() ? " ASC" : " DESC");
     }
 
     private OrderedSQLStatement() {
@@ -27,7 +36,11 @@ public class OrderedSQLStatement extends AbstractOrderedStatement {
     public OrderedSQLStatement orderBy (OrderByClause clause) {
         OrderedSQLStatement result = new OrderedSQLStatement();
         result.copyAux(this);
-        result.stat = stat + ", " + clause.getField() + (clause.isAscending() ? " ASC" : " DESC");
+        result.source = this.source;
+        result.clauses = this.clauses.append(clause);
+        result.append(", ");
+        result.append(clause.getField());
+        result.append(clause.isAscending() ? " ASC" : " DESC");
         return result;
     }
 
@@ -35,4 +48,15 @@ public class OrderedSQLStatement extends AbstractOrderedStatement {
         return new LimitedSQLStatement(this, pageSize, pageNr*pageSize);
     }
 
+    /**
+     * Restricts this query to the page of the given size that follows the page with the given continuation token,
+     * or to the first page when the token is null. Use {@link KeysetSQLStatement#getKeysetPage} to retrieve the page
+     * together with the token for the next page.
+     * <p>All pages take the same time to retrieve, unlike with {@link #onlyPage}. The fields of the order by
+     * clauses must be names of result columns which are never null and together identify a row uniquely.</p>
+     */
+    public KeysetSQLStatement onlyPageAfter(String token, int pageSize) {
+        return new KeysetSQLStatement(this, source, clauses, token, pageSize);
+    }
+
 }
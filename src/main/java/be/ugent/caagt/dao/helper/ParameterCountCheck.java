@@ -0,0 +1,30 @@
+/*
+ * ParameterCountCheck.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+/**
+ * Determines how the number of parameters of a statement is validated before it is executed.
+ *
+ * @see BaseDAC#getParameterCountCheck()
+ */
+public enum ParameterCountCheck {
+
+    /**
+     * Count the placeholders in the SQL text. The count is computed only once for every SQL text and
+     * does not need the database.
+     */
+    PARSED,
+
+    /**
+     * Ask the JDBC driver for the parameter meta data. Strict, but with PostgreSQL this may need an
+     * extra round trip to the database for every statement execution. Use for debugging only.
+     */
+    METADATA
+}
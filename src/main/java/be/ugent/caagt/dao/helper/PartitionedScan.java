@@ -0,0 +1,428 @@
+/*
+ * PartitionedScan.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import be.ugent.caagt.dao.DACException;
+import be.ugent.caagt.dao.DataAccessException;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Scans the result of a query in parallel, by splitting it into ranges of an integer partition column
+ * and executing one query per range, each on its own context. For example
+ * <pre>
+ *     select("id, name").from("persons").partitionBy("id", 4)
+ *         .process(provider::getContext, rs -&gt; ...);
+ * </pre>
+ * <p>The ranges are computed from the minimum and maximum value of the partition column, or
+ * from the statistics gathered by the database (see {@link #usingHistogram}). The original query is used
+ * as a subquery, so the partition column must be an (unqualified) name of a column in its result.
+ * Rows for which the partition column is null belong to the first range.</p>
+ * <p>By default, every range query sees the database as it is when that query starts. Use
+ * {@link #withSnapshot} to make all range queries see the same snapshot.</p>
+ */
+public class PartitionedScan {
+
+    private static final String TABLE_ID = "__daohelper__partition";
+
+    private static final long POLL_MILLIS = 100;
+
+    private final SelectSQLStatement statement;
+
+    private final String column;
+
+    private final int parallelism;
+
+    private final String histogramTable;
+
+    private final boolean snapshot;
+
+    PartitionedScan(SelectSQLStatement statement, String column, int parallelism) {
+        this(statement, column, parallelism, null, false);
+    }
+
+    private PartitionedScan(SelectSQLStatement statement, String column, int parallelism,
+                            String histogramTable, boolean snapshot) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Degree of parallelism must be positive");
+        }
+        this.statement = statement;
+        this.column = column;
+        this.parallelism = parallelism;
+        this.histogramTable = histogramTable;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Computes the ranges from the histogram that PostgreSQL keeps for the partition column of the given
+     * table (in {@code pg_stats}), instead of from the minimum and maximum value. This gives ranges with
+     * about the same number of rows when the values are not evenly distributed. Falls back to the minimum
+     * and maximum when the table has no histogram for the column (e.g., when it was never analyzed).
+     */
+    public PartitionedScan usingHistogram(String table) {
+        return new PartitionedScan(statement, column, parallelism, table, snapshot);
+    }
+
+    /**
+     * Makes all range queries use the same snapshot of the database (exported with {@code pg_export_snapshot}),
+     * so that the scan is consistent. This needs one extra connection, which holds the snapshot
+     * while the scan is running.
+     */
+    public PartitionedScan withSnapshot() {
+        return new PartitionedScan(statement, column, parallelism, histogramTable, true);
+    }
+
+    // query of the form SELECT ... FROM (original query) AS __daohelper__partition
+    private static class PartitionQuery extends AbstractQueryStatement {
+        PartitionQuery(String fields, SelectSQLStatement src, BaseDAC context) {
+            super("SELECT " + fields + " FROM (", context);
+            appendAll(src.getFragments());
+            append(") AS ");
+            append(TABLE_ID);
+            this.params = src.params;
+        }
+    }
+
+    /**
+     * The range queries, computed on the given context.
+     */
+    List<AbstractQueryStatement> getRanges(BaseDAC context) {
+        long[] splits = null;
+        if (histogramTable != null) {
+            long[] bounds = getHistogram(context);
+            if (bounds != null) {
+                splits = splits(bounds, parallelism);
+            }
+        }
+        if (splits == null) {
+            long[] minMax = new PartitionQuery("min(" + column + "), max(" + column + ")", statement, context)
+                    .getObject(rs -> {
+                        long min = rs.getLong(1);
+                        return rs.wasNull() ? null : new long[]{min, rs.getLong(2)};
+                    });
+            splits = minMax == null ? new long[0] : splits(minMax[0], minMax[1], parallelism);
+        }
+        List<AbstractQueryStatement> result = new ArrayList<>();
+        for (int i = 0; i <= splits.length; i++) {
+            PartitionQuery range = new PartitionQuery("*", statement, context);
+            if (splits.length > 0) {
+                if (i == 0) {
+                    range.append(" WHERE (" + column + " < ? OR " + column + " IS NULL)");
+                    range.addAux(new LongParameter(splits[0]));
+                } else if (i == splits.length) {
+                    range.append(" WHERE " + column + " >= ?");
+                    range.addAux(new LongParameter(splits[i - 1]));
+                } else {
+                    range.append(" WHERE " + column + " >= ? AND " + column + " < ?");
+                    range.addAux(new LongParameter(splits[i - 1]));
+                    range.addAux(new LongParameter(splits[i]));
+                }
+            }
+            result.add(range);
+        }
+        return result;
+    }
+
+    private long[] getHistogram(BaseDAC context) {
+        int pos = histogramTable.indexOf('.');
+        String sql = "SELECT histogram_bounds::text::bigint[] FROM pg_stats WHERE attname = ? AND tablename = ? AND " +
+                     (pos < 0 ? "schemaname = ANY(current_schemas(false))" : "schemaname = ?");
+        try (CachedStatement cs = context.prepareStatement(sql)) {
+            PreparedStatement ps = cs.get();
+            ps.setString(1, column);
+            if (pos < 0) {
+                ps.setString(2, histogramTable);
+            } else {
+                ps.setString(2, histogramTable.substring(pos + 1));
+                ps.setString(3, histogramTable.substring(0, pos));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                Array array = rs.next() ? rs.getArray(1) : null;
+                if (array == null) {
+                    return null;
+                }
+                Long[] values = (Long[]) array.getArray();
+                long[] result = new long[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    result[i] = values[i];
+                }
+                return result.length < 2 ? null : result;
+            }
+        } catch (SQLException ex) {
+            throw BaseDAO.convert(ex);
+        }
+    }
+
+    /**
+     * Split points for the given number of ranges of about equal width, between min and max (inclusive).
+     * Returns fewer split points when there are less values than ranges.
+     */
+    static long[] splits(long min, long max, int parallelism) {
+        double width = ((double) max - (double) min + 1) / parallelism;
+        long[] result = new long[parallelism - 1];
+        int size = 0;
+        long previous = min;
+        for (int i = 1; i < parallelism; i++) {
+            long split = min + (long) Math.floor(width * i);
+            if (split > previous && split <= max) {
+                result[size++] = split;
+                previous = split;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Split points for the given number of ranges with about the same number of histogram buckets.
+     */
+    static long[] splits(long[] bounds, int parallelism) {
+        int buckets = bounds.length - 1;
+        long[] result = new long[parallelism - 1];
+        int size = 0;
+        long previous = bounds[0];
+        for (int i = 1; i < parallelism; i++) {
+            long split = bounds[(int) ((long) buckets * i / parallelism)];
+            if (split > previous) {
+                result[size++] = split;
+                previous = split;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    // the context that computes the ranges and, if requested, exports the snapshot
+    private static final class Coordinator implements AutoCloseable {
+        final BaseDAC context;
+        final String snapshotId;
+        private boolean closed;
+
+        Coordinator(Supplier<? extends BaseDAC> contexts, boolean snapshot) {
+            this.context = contexts.get();
+            try {
+                if (snapshot) {
+                    Connection connection = context.getConnection();
+                    connection.setAutoCommit(false);
+                    try (Statement stat = connection.createStatement()) {
+                        stat.execute("SET TRANSACTION ISOLATION LEVEL REPEATABLE READ");
+                        try (ResultSet rs = stat.executeQuery("SELECT pg_export_snapshot()")) {
+                            rs.next();
+                            this.snapshotId = rs.getString(1);
+                        }
+                    }
+                } else {
+                    this.snapshotId = null;
+                }
+            } catch (SQLException | RuntimeException ex) {
+                context.close();
+                throw ex instanceof SQLException sqlEx ? BaseDAO.convert(sqlEx) : (RuntimeException) ex;
+            }
+        }
+
+        // the context is only needed while the range queries run when it holds the snapshot
+        void rangesComputed() {
+            if (snapshotId == null) {
+                close();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                context.close(); // also ends the transaction that holds the snapshot
+            }
+        }
+    }
+
+    // executes a single range query on its own context, using the snapshot if not null
+    private static void scan(AbstractQueryStatement range, String snapshotId, ResultSetConsumer consumer) {
+        Connection connection = range.context.getConnection();
+        try {
+            if (snapshotId != null) {
+                connection.setAutoCommit(false);
+                try (Statement stat = connection.createStatement()) {
+                    stat.execute("SET TRANSACTION ISOLATION LEVEL REPEATABLE READ");
+                    stat.execute("SET TRANSACTION SNAPSHOT '" + snapshotId.replace("'", "''") + "'");
+                }
+            }
+            try (Cursor cursor = new Cursor(range, range.context.getFetchSize())) {
+                while (cursor.next()) {
+                    consumer.accept(cursor.getResultSet());
+                }
+            }
+            if (snapshotId != null) {
+                connection.commit();
+            }
+        } catch (SQLException ex) {
+            throw BaseDAO.convert(ex);
+        }
+    }
+
+    /**
+     * Executes the range queries in parallel, each on a new context obtained from the given supplier
+     * (typically {@code provider::getContext}, which should then allow at least as many connections as the
+     * degree of parallelism, one more when a snapshot is used), and calls the consumer for every row. The consumer is called
+     * from several threads at the same time, and hence must be thread safe.
+     * <p>When one of the range queries fails, the others are cancelled and the exception is rethrown.</p>
+     */
+    public void process(Supplier<? extends BaseDAC> contexts, ResultSetConsumer consumer) throws DataAccessException {
+        try (Coordinator coordinator = new Coordinator(contexts, snapshot);
+             FanOut fanOut = new FanOut(contexts)) {
+            List<AbstractQueryStatement> ranges = getRanges(coordinator.context);
+            coordinator.rangesComputed();
+            for (AbstractQueryStatement range : ranges) {
+                fanOut.fork(range, s -> {
+                    scan(s, coordinator.snapshotId, consumer);
+                    return null;
+                });
+            }
+            fanOut.join();
+        }
+    }
+
+    /**
+     * Executes the range queries in parallel, each on a new context obtained from the given supplier
+     * (typically {@code provider::getContext}), and returns the converted rows of all ranges as a single stream.
+     * Rows are converted on the threads that execute the range queries, and are not returned in any specific order.
+     * <p>The stream must be closed after use, which cancels the range queries that are still running. The
+     * stream is also closed as soon as the last row has been read.</p>
+     */
+    public <T> Stream<T> getStream(Supplier<? extends BaseDAC> contexts, ResultSetConverter<T> rsc)
+            throws DataAccessException {
+        Coordinator coordinator = new Coordinator(contexts, snapshot);
+        try {
+            List<AbstractQueryStatement> ranges = getRanges(coordinator.context);
+            Merge<T> merge = new Merge<>(coordinator, contexts, ranges.size() * coordinator.context.getFetchSize());
+            coordinator.rangesComputed();
+            for (AbstractQueryStatement range : ranges) {
+                merge.fanOut.fork(range, s -> {
+                    try {
+                        scan(s, coordinator.snapshotId, rs -> merge.put(rsc.convert(rs)));
+                    } finally {
+                        merge.end();
+                    }
+                    return null;
+                });
+            }
+            return StreamSupport.stream(merge, false).onClose(merge::close);
+        } catch (RuntimeException ex) {
+            coordinator.close();
+            throw ex;
+        }
+    }
+
+    // merges the rows of all range queries, which are passed through a bounded queue
+    private static final class Merge<T> extends Spliterators.AbstractSpliterator<T> {
+
+        private static final Object NULL = new Object();
+
+        private static final Object END = new Object();
+
+        private final Coordinator coordinator;
+
+        private final FanOut fanOut;
+
+        private final BlockingQueue<Object> queue;
+
+        private int running;
+
+        private volatile boolean closed;
+
+        Merge(Coordinator coordinator, Supplier<? extends BaseDAC> contexts, int capacity) {
+            super(Long.MAX_VALUE, 0);
+            this.coordinator = coordinator;
+            this.fanOut = new FanOut(contexts);
+            this.queue = new ArrayBlockingQueue<>(Math.max(capacity, 1));
+        }
+
+        // called by the range queries
+        void put(T item) {
+            offer(item == null ? NULL : item);
+        }
+
+        // called by the range queries, when they are done
+        void end() {
+            offer(END);
+        }
+
+        private void offer(Object object) {
+            try {
+                while (!queue.offer(object, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (closed || fanOut.isShutdown()) {
+                        throw new CancellationException();
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException();
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            try {
+                while (true) {
+                    Object object = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (object == END) {
+                        running++;
+                    } else if (object != null) {
+                        @SuppressWarnings("unchecked")
+                        T item = object == NULL ? null : (T) object;
+                        action.accept(item);
+                        return true;
+                    }
+                    if (running == fanOut.size() || object == null && fanOut.isShutdown()) {
+                        // all range queries are done, or one of them failed
+                        try {
+                            fanOut.join();
+                        } finally {
+                            close();
+                        }
+                        return false;
+                    }
+                }
+            } catch (InterruptedException ex) {
+                close();
+                Thread.currentThread().interrupt();
+                throw new DACException("Interrupted while waiting for rows", ex);
+            }
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                fanOut.close();
+            } finally {
+                coordinator.close();
+            }
+        }
+    }
+}
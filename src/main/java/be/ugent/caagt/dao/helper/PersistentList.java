@@ -0,0 +1,123 @@
+/*
+ * PersistentList.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable list that shares its structure with the list it was derived from. Appending an element
+ * takes constant time and leaves the original list unchanged, so that fluent statements can be
+ * extended in different ways from a common prefix without copying.
+ * <p>Internally, every list stores its last element and a pointer to the list without that element.
+ * An array with all elements (in order) is computed on first use and then kept.</p>
+ */
+final class PersistentList<T> implements Iterable<T> {
+
+    private static final PersistentList<?> EMPTY = new PersistentList<>(null, null, 0);
+
+    private final PersistentList<T> init;
+
+    private final T last;
+
+    private final int size;
+
+    private volatile Object[] elements;
+
+    private PersistentList(PersistentList<T> init, T last, int size) {
+        this.init = init;
+        this.last = last;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> PersistentList<T> empty() {
+        return (PersistentList<T>) EMPTY;
+    }
+
+    /**
+     * Returns a list with the given element added at the end.
+     */
+    PersistentList<T> append(T element) {
+        return new PersistentList<>(this, element, size + 1);
+    }
+
+    /**
+     * Returns a list with all elements of the given list added at the end.
+     */
+    PersistentList<T> appendAll(PersistentList<? extends T> other) {
+        PersistentList<T> result = this;
+        for (T element : other) {
+            result = result.append(element);
+        }
+        return result;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Element at the given position. Constant time, except for the first call on a list.
+     */
+    @SuppressWarnings("unchecked")
+    T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (T) elements()[index];
+    }
+
+    private Object[] elements() {
+        Object[] result = elements;
+        if (result == null) {
+            result = new Object[size];
+            PersistentList<T> list = this;
+            for (int i = size - 1; i >= 0; i--) {
+                result[i] = list.last;
+                list = list.init;
+            }
+            elements = result;
+        }
+        return result;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        Object[] array = elements();
+        return new Iterator<>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < array.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (index >= array.length) {
+                    throw new NoSuchElementException();
+                }
+                return (T) array[index++];
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(elements());
+    }
+}
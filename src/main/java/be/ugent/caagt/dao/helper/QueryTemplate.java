@@ -0,0 +1,115 @@
+/*
+ * QueryTemplate.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Query that can be executed repeatedly with different values for its slots. Obtained by
+ * calling {@code template()} on a query statement.
+ * <p>Like the data access context it belongs to, a template should not be shared between threads.</p>
+ * @see Slot
+ */
+public class QueryTemplate extends AbstractQueryStatement implements SupportsBind<QueryTemplate> {
+
+    private final SlotBinding binding;
+
+    QueryTemplate(AbstractQueryStatement src) {
+        copyAux(src);
+        this.binding = new SlotBinding(params);
+    }
+
+    // Template with the given parameters instead of those of the source
+    private QueryTemplate(AbstractQueryStatement src, PersistentList<Parameter> params) {
+        copyAux(src);
+        this.params = params;
+        this.binding = new SlotBinding(params);
+    }
+
+    @Override
+    protected void setParameters(PreparedStatement ps) throws SQLException {
+        binding.setParameters(ps);
+    }
+
+    @Override
+    PersistentList<Parameter> getBoundParameters() {
+        return binding.getParameters();
+    }
+
+    /**
+     * A copy of this template in which the slots are replaced by the values that are currently bound to them,
+     * so that the asynchronous operation that uses it does not share the bindings of this template.
+     */
+    @Override
+    AbstractQueryStatement snapshot() {
+        return new QueryTemplate(this, binding.getParameters());
+    }
+
+    @Override
+    public QueryTemplate bind(String name, Parameter value) {
+        binding.bind(binding.slot(name), value);
+        return this;
+    }
+
+    @Override
+    public QueryTemplate bind(int position, Parameter value) {
+        binding.bind(binding.slot(position), value);
+        return this;
+    }
+
+    @Override
+    public QueryTemplate bind(String name, int value) {
+        binding.bind(binding.slot(name), value);
+        return this;
+    }
+
+    @Override
+    public QueryTemplate bind(int position, int value) {
+        binding.bind(binding.slot(position), value);
+        return this;
+    }
+
+    @Override
+    public QueryTemplate bind(String name, double value) {
+        binding.bind(binding.slot(name), value);
+        return this;
+    }
+
+    @Override
+    public QueryTemplate bind(int position, double value) {
+        binding.bind(binding.slot(position), value);
+        return this;
+    }
+
+    @Override
+    public QueryTemplate bind(String name, boolean value) {
+        binding.bind(binding.slot(name), value);
+        return this;
+    }
+
+    @Override
+    public QueryTemplate bind(int position, boolean value) {
+        binding.bind(binding.slot(position), value);
+        return this;
+    }
+
+    @Override
+    public QueryTemplate bind(String name, String value) {
+        binding.bind(binding.slot(name), value);
+        return this;
+    }
+
+    @Override
+    public QueryTemplate bind(int position, String value) {
+        binding.bind(binding.slot(position), value);
+        return this;
+    }
+}
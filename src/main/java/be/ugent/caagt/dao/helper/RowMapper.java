@@ -0,0 +1,90 @@
+/*
+ * RowMapper.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.ref.WeakReference;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Result set converter that looks up its columns by label only once per result set, instead of once per row.
+ * For example
+ * <pre>
+ *     static final RowMapper&lt;Person&gt; PERSON = RowMapper.of(columns -&gt; {
+ *         int name = columns.get("name");
+ *         int firstName = columns.get("first_name");
+ *         return rs -&gt; new Person(rs.getString(name), rs.getString(firstName));
+ *     });
+ *     ...
+ *     List&lt;Person&gt; persons = select("*").from("persons").getList(PERSON);
+ * </pre>
+ * <p>The binder is called when the mapper is applied to the first row of a result set, and the converter it returns
+ * is used for all remaining rows of that result set. A row mapper can be used wherever a {@link ResultSetConverter}
+ * is expected, and may be shared between threads. (It is however less efficient when applied alternately
+ * to rows of different result sets, e.g., in nested queries.)</p>
+ */
+public final class RowMapper<T> implements ResultSetConverter<T> {
+
+    /**
+     * Creates a converter which reads columns by index, given the column indices of a result set
+     */
+    @FunctionalInterface
+    public interface Binder<T> {
+        ResultSetConverter<T> bind(ColumnIndex columns) throws SQLException;
+    }
+
+    // converter for a specific result set, which is only weakly referenced
+    private record Bound<T>(WeakReference<ResultSet> resultSet, ResultSetConverter<T> converter) {
+    }
+
+    private final Binder<T> binder;
+
+    private volatile Bound<T> bound;
+
+    private RowMapper(Binder<T> binder) {
+        this.binder = binder;
+    }
+
+    public static <T> RowMapper<T> of(Binder<T> binder) {
+        return new RowMapper<>(binder);
+    }
+
+    /**
+     * Row mapper that creates an object of the given type from every row. The type must either be a record,
+     * whose components are read from the columns with the same name (in snake case or as is), or have a constructor
+     * annotated with {@link ColumnNames}. Columns are read with a getter that is specific to the type of the
+     * corresponding component or constructor parameter ({@code getInt}, {@code getString},
+     * {@link BaseDAO#getLocalDate}, ...). Enums are read from their names.
+     * <p>The code that reads a row is composed (using method handles) only once for every type and column layout,
+     * and hence is about as fast as a handwritten converter.</p>
+     */
+    public static <T> RowMapper<T> of(Class<T> type) {
+        return of(ConstructorMapping.of(type)::bind);
+    }
+
+    /**
+     * As {@link #of(Class)}, but uses the given lookup to access the constructor (instead of reflection),
+     * e.g., for types in a module that is not open to this library.
+     */
+    public static <T> RowMapper<T> of(Class<T> type, MethodHandles.Lookup lookup) {
+        return of(new ConstructorMapping<>(type, lookup)::bind);
+    }
+
+    @Override
+    public T convert(ResultSet rs) throws SQLException {
+        Bound<T> current = bound;
+        if (current == null || current.resultSet().get() != rs) {
+            current = new Bound<>(new WeakReference<>(rs), binder.bind(new ColumnIndex(rs.getMetaData())));
+            bound = current;
+        }
+        return current.converter().convert(rs);
+    }
+}
@@ -46,11 +46,14 @@ public class SQLProcedureCall extends AbstractSQLStatement implements SupportsPa
      * Execute the call
      */
     public void execute() throws DataAccessException {
-        try (CallableStatement ps = context.getConnection().prepareCall("{call " + stat + "}")) {
+        context.lock();
+        try (CallableStatement ps = context.getConnection().prepareCall("{call " + getStatement() + "}")) {
             initParameters(ps);
             ps.execute();
         } catch (SQLException ex) {
             throw BaseDAO.convert(ex);
+        } finally {
+            context.unlock();
         }
     }
 
@@ -21,7 +21,8 @@ public class SelectSQLStatement extends AbstractOrderedStatement
 
     SelectSQLStatement(SelectHeader src, String clause) {
         copyAux(src);
-        stat += " FROM " + clause;
+        append(" FROM ");
+        append(clause);
     }
 
     private SelectSQLStatement() {
@@ -59,15 +60,23 @@ public class SelectSQLStatement extends AbstractOrderedStatement
         return new GroupedSQLStatement(this, fields);
     }
 
+    /**
+     * Scan the result of this query in parallel, split into the given number of ranges of the given
+     * integer column.
+     * @see PartitionedScan
+     */
+    public PartitionedScan partitionBy(String column, int parallelism) {
+        return new PartitionedScan(this, column, parallelism);
+    }
+
     /**
      * Limits the query to maximum one row, executes it and returns whether it returned
      * a result.
      */
     public boolean isEmpty() {
         // TODO: this only works for Derby and Postgresql
-        try (PreparedStatement ps = context.getConnection().prepareStatement(
-                stat + " FETCH FIRST 1 ROWS ONLY"
-        )) {
+        try (CachedStatement cs = context.prepareStatement(getStatement() + " FETCH FIRST 1 ROWS ONLY")) {
+            PreparedStatement ps = cs.get();
             initParameters(ps);
             try (ResultSet rs = ps.executeQuery()) {
                 return !rs.next();
@@ -0,0 +1,86 @@
+/*
+ * SerialExecutor.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor that runs its tasks one at a time, in the order in which they were submitted, using threads
+ * of an underlying executor. Used to make sure that asynchronous operations of a data access context
+ * never use its connection at the same time.
+ */
+final class SerialExecutor implements Executor {
+
+    private static final Executor DEFAULT_EXECUTOR = createDefaultExecutor();
+
+    private final Executor executor;
+
+    private final Queue<Runnable> tasks;
+
+    // number of tasks submitted but not yet completed. A drain is active when this is positive
+    private final AtomicInteger size;
+
+    SerialExecutor(Executor executor) {
+        this.executor = executor;
+        this.tasks = new ConcurrentLinkedQueue<>();
+        this.size = new AtomicInteger();
+    }
+
+    /**
+     * Executor that starts a new virtual thread for every task, when the Java version supports this,
+     * or otherwise a pool of daemon threads.
+     */
+    static Executor defaultExecutor() {
+        return DEFAULT_EXECUTOR;
+    }
+
+    private static Executor createDefaultExecutor() {
+        try {
+            // Java 21 and higher
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "daohelper-async");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        tasks.add(task);
+        if (size.getAndIncrement() == 0) {
+            try {
+                executor.execute(this::drain);
+            } catch (RuntimeException ex) {
+                // task rejected: run nothing, but allow later tasks to start a new drain
+                tasks.remove(task);
+                size.decrementAndGet();
+                throw ex;
+            }
+        }
+    }
+
+    private void drain() {
+        do {
+            Runnable task = tasks.poll();
+            try {
+                task.run();
+            } catch (RuntimeException ex) {
+                // errors are reported through the futures of the tasks, must not stop the queue
+            }
+        } while (size.decrementAndGet() != 0);
+    }
+}
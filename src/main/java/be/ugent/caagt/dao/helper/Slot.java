@@ -0,0 +1,84 @@
+/*
+ * Slot.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Placeholder for a parameter of a statement that is turned into a template. The actual value is bound
+ * to the slot each time the template is executed. Slots are either named (the same name may be used
+ * more than once in a statement) or positional (numbered from 1 in order of appearance).
+ * <p>A statement that contains slots can only be executed as a template.</p>
+ */
+public final class Slot implements Parameter {
+
+    private static final Slot POSITIONAL = new Slot(null, "?");
+
+    private final String name;
+
+    private final String questionMark;
+
+    private Slot(String name, String questionMark) {
+        this.name = name;
+        this.questionMark = questionMark;
+    }
+
+    /**
+     * Slot with the given name.
+     */
+    public static Slot named(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Slot name must not be null");
+        }
+        return new Slot(name, "?");
+    }
+
+    /**
+     * Slot with the given name, cast to the given SQL type (e.g., the name of an enumerated type).
+     */
+    public static Slot named(String name, String typeName) {
+        if (name == null) {
+            throw new IllegalArgumentException("Slot name must not be null");
+        }
+        return new Slot(name, "?::" + typeName);
+    }
+
+    /**
+     * Positional slot.
+     */
+    public static Slot positional() {
+        return POSITIONAL;
+    }
+
+    /**
+     * Positional slot, cast to the given SQL type (e.g., the name of an enumerated type).
+     */
+    public static Slot positional(String typeName) {
+        return new Slot(null, "?::" + typeName);
+    }
+
+    /**
+     * Name of this slot, or null for a positional slot.
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getQuestionMark() {
+        return questionMark;
+    }
+
+    @Override
+    public void setParameter(PreparedStatement ps, int index) throws SQLException {
+        throw new IllegalStateException("A statement with slots can only be executed as a template");
+    }
+}
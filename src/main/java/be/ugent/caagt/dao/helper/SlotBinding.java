@@ -0,0 +1,205 @@
+/*
+ * SlotBinding.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Values currently bound to the slots of a template. Primitive values are stored in arrays, so that
+ * binding them does not allocate.
+ */
+final class SlotBinding {
+
+    private static final byte INT = 1;
+    private static final byte DOUBLE = 2;
+    private static final byte BOOLEAN = 3;
+    private static final byte STRING = 4;
+    private static final byte PARAMETER = 5;
+
+    // parameters of the statement, in order
+    private final Parameter[] parameters;
+
+    // slot index for every parameter, or -1 for a parameter that is not a slot
+    private final int[] slotIndices;
+
+    // slot index for every name
+    private final Map<String, Integer> named;
+
+    // slot index for every position
+    private final int[] positional;
+
+    // name of every slot, null for positional slots
+    private final String[] names;
+
+    // kind of value bound to every slot, 0 when unbound
+    private final byte[] kinds;
+
+    private final int[] ints;
+
+    private final double[] doubles;
+
+    private final Object[] objects;
+
+    SlotBinding(Iterable<? extends Parameter> list) {
+        List<Parameter> parameterList = new ArrayList<>();
+        for (Parameter parameter : list) {
+            parameterList.add(parameter);
+        }
+        this.parameters = parameterList.toArray(new Parameter[0]);
+        this.slotIndices = new int[parameters.length];
+        this.named = new HashMap<>();
+        List<String> nameList = new ArrayList<>();
+        List<Integer> positionList = new ArrayList<>();
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i] instanceof Slot slot) {
+                String name = slot.getName();
+                if (name == null) {
+                    positionList.add(nameList.size());
+                    slotIndices[i] = nameList.size();
+                    nameList.add(null);
+                } else {
+                    Integer index = named.get(name);
+                    if (index == null) {
+                        index = nameList.size();
+                        named.put(name, index);
+                        nameList.add(name);
+                    }
+                    slotIndices[i] = index;
+                }
+            } else {
+                slotIndices[i] = -1;
+            }
+        }
+        this.positional = positionList.stream().mapToInt(Integer::intValue).toArray();
+        this.names = nameList.toArray(new String[0]);
+        int size = names.length;
+        this.kinds = new byte[size];
+        this.ints = new int[size];
+        this.doubles = new double[size];
+        this.objects = new Object[size];
+    }
+
+    /**
+     * Index of the slot with the given name.
+     */
+    int slot(String name) {
+        Integer index = named.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("Template has no slot named " + name);
+        }
+        return index;
+    }
+
+    /**
+     * Index of the positional slot with the given position (starting from 1).
+     */
+    int slot(int position) {
+        if (position < 1 || position > positional.length) {
+            throw new IllegalArgumentException("Template has no positional slot " + position);
+        }
+        return positional[position - 1];
+    }
+
+    void bind(int slot, int value) {
+        kinds[slot] = INT;
+        ints[slot] = value;
+        objects[slot] = null;
+    }
+
+    void bind(int slot, double value) {
+        kinds[slot] = DOUBLE;
+        doubles[slot] = value;
+        objects[slot] = null;
+    }
+
+    void bind(int slot, boolean value) {
+        kinds[slot] = BOOLEAN;
+        ints[slot] = value ? 1 : 0;
+        objects[slot] = null;
+    }
+
+    void bind(int slot, String value) {
+        kinds[slot] = STRING;
+        objects[slot] = value;
+    }
+
+    void bind(int slot, Parameter value) {
+        if (value instanceof Slot) {
+            throw new IllegalArgumentException("Cannot bind a slot to a slot");
+        }
+        kinds[slot] = PARAMETER;
+        objects[slot] = value;
+    }
+
+    /**
+     * Number of parameters of the statement, slots included
+     */
+    int size() {
+        return parameters.length;
+    }
+
+    /**
+     * Fills in all parameters of the statement, using the currently bound values for the slots.
+     */
+    void setParameters(PreparedStatement ps) throws SQLException {
+        for (int i = 0; i < parameters.length; i++) {
+            int index = i + 1;
+            int slot = slotIndices[i];
+            if (slot < 0) {
+                parameters[i].setParameter(ps, index);
+            } else {
+                switch (kinds[slot]) {
+                    case INT -> ps.setInt(index, ints[slot]);
+                    case DOUBLE -> ps.setDouble(index, doubles[slot]);
+                    case BOOLEAN -> ps.setBoolean(index, ints[slot] != 0);
+                    case STRING -> ps.setString(index, (String) objects[slot]);
+                    case PARAMETER -> ((Parameter) objects[slot]).setParameter(ps, index);
+                    default -> throw unbound(slot);
+                }
+            }
+        }
+    }
+
+    /**
+     * All parameters of the statement, with the slots replaced by their currently bound values.
+     */
+    PersistentList<Parameter> getParameters() {
+        PersistentList<Parameter> result = PersistentList.empty();
+        for (int i = 0; i < parameters.length; i++) {
+            int slot = slotIndices[i];
+            if (slot < 0) {
+                result = result.append(parameters[i]);
+            } else {
+                result = result.append(switch (kinds[slot]) {
+                    case INT -> new IntParameter(ints[slot]);
+                    case DOUBLE -> new DoubleParameter(doubles[slot]);
+                    case BOOLEAN -> new BooleanParameter(ints[slot] != 0);
+                    case STRING -> new StringParameter((String) objects[slot]);
+                    case PARAMETER -> (Parameter) objects[slot];
+                    default -> throw unbound(slot);
+                });
+            }
+        }
+        return result;
+    }
+
+    private IllegalStateException unbound(int slot) {
+        return new IllegalStateException(
+                names[slot] == null
+                        ? "No value bound to a positional slot"
+                        : "No value bound to slot " + names[slot]
+        );
+    }
+}
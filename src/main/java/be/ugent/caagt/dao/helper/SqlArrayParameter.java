@@ -13,7 +13,7 @@ import java.sql.Array;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
-class SqlArrayParameter implements Parameter {
+class SqlArrayParameter implements TextParameter {
 
     private final Object[] par;
 
@@ -33,4 +33,44 @@ class SqlArrayParameter implements Parameter {
             ps.setArray(index, null);
         }
     }
+
+    @Override
+    public String getText() {
+        if (par == null) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder();
+        appendArray(builder, par);
+        return builder.toString();
+    }
+
+    // Array literal in the format '{1,2,3}' or '{{"a","b"},{"c",NULL}}'
+    private static void appendArray(StringBuilder builder, Object[] array) {
+        builder.append('{');
+        for (int i = 0; i < array.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            Object element = array[i];
+            if (element == null) {
+                builder.append("NULL");
+            } else if (element instanceof Object[] subArray) {
+                appendArray(builder, subArray);
+            } else if (element instanceof Number || element instanceof Boolean) {
+                builder.append(element);
+            } else {
+                builder.append('"');
+                String string = element.toString();
+                for (int j = 0; j < string.length(); j++) {
+                    char ch = string.charAt(j);
+                    if (ch == '"' || ch == '\\') {
+                        builder.append('\\');
+                    }
+                    builder.append(ch);
+                }
+                builder.append('"');
+            }
+        }
+        builder.append('}');
+    }
 }
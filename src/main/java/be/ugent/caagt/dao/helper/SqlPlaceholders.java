@@ -0,0 +1,253 @@
+/*
+ * SqlPlaceholders.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts (or replaces) the parameter placeholders in an SQL statement without consulting the database.
+ * Question marks inside string literals, quoted identifiers, comments and dollar quoted strings
+ * are skipped, as are double question marks (which the PostgreSQL driver treats as an escaped
+ * question mark). A cast following a placeholder, as in {@code ?::color}, does not matter.
+ */
+final class SqlPlaceholders {
+
+    private SqlPlaceholders() {
+        // utility class
+    }
+
+    // results are cached per SQL text, the cache is simply cleared when it becomes too large
+    private static final int MAX_CACHE_SIZE = 1024;
+
+    private static final Map<String, Integer> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Number of placeholders in the given SQL text. Results are cached.
+     */
+    static int count(String sql) {
+        Integer result = CACHE.get(sql);
+        if (result == null) {
+            result = scan(sql);
+            if (CACHE.size() >= MAX_CACHE_SIZE) {
+                CACHE.clear();
+            }
+            CACHE.put(sql, result);
+        }
+        return result;
+    }
+
+    /**
+     * Number of placeholders in the given SQL text. Not cached.
+     */
+    static int scan(String sql) {
+        return scan(sql, null);
+    }
+
+    /**
+     * Called for every placeholder (or escaped question mark) in the SQL text
+     */
+    private interface Handler {
+        void handle(int pos, boolean escaped);
+    }
+
+    /**
+     * Replaces the placeholders in the given SQL text by the text of the corresponding parameters,
+     * as SQL literals. Escaped question marks are replaced by single question marks.
+     */
+    static String inline(String sql, PersistentList<Parameter> params) {
+        StringBuilder builder = new StringBuilder(sql.length() + 16 * params.size());
+        Iterator<Parameter> iterator = params.iterator();
+        int[] last = {0};
+        int[] index = {1};
+        scan(sql, (pos, escaped) -> {
+            builder.append(sql, last[0], pos);
+            if (escaped) {
+                builder.append('?');
+                last[0] = pos + 2;
+            } else {
+                if (!iterator.hasNext()) {
+                    throw new IllegalArgumentException("Incorrect nr of parameters");
+                }
+                appendLiteral(builder, getText(iterator.next(), index[0]));
+                index[0]++;
+                last[0] = pos + 1;
+            }
+        });
+        if (iterator.hasNext()) {
+            throw new IllegalArgumentException("Incorrect nr of parameters");
+        }
+        return builder.append(sql, last[0], sql.length()).toString();
+    }
+
+    private static String getText(Parameter parameter, int index) {
+        if (parameter instanceof TextParameter textParameter) {
+            return textParameter.getText();
+        } else if (parameter instanceof Slot) {
+            throw new IllegalStateException("A statement with slots can only be executed as a template");
+        } else {
+            throw new IllegalArgumentException("Parameter " + index + " has no text format: "
+                    + parameter.getClass().getSimpleName() + " does not implement TextParameter");
+        }
+    }
+
+    // escape string syntax, so that the result does not depend on standard_conforming_strings
+    private static void appendLiteral(StringBuilder builder, String text) {
+        if (text == null) {
+            builder.append("NULL");
+            return;
+        }
+        if (!builder.isEmpty() && isIdentifierPart(builder.charAt(builder.length() - 1))) {
+            builder.append(' ');
+        }
+        builder.append("E'");
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch == '\\' || ch == '\'') {
+                builder.append(ch);
+            }
+            builder.append(ch);
+        }
+        builder.append('\'');
+    }
+
+    private static int scan(String sql, Handler handler) {
+        int count = 0;
+        int length = sql.length();
+        int pos = 0;
+        while (pos < length) {
+            char ch = sql.charAt(pos);
+            switch (ch) {
+                case '\'' -> pos = skipString(sql, pos, isEscapeString(sql, pos));
+                case '"' -> pos = skipQuoted(sql, pos, '"');
+                case '-' -> pos = sql.startsWith("--", pos) ? skipLineComment(sql, pos) : pos + 1;
+                case '/' -> pos = sql.startsWith("/*", pos) ? skipBlockComment(sql, pos) : pos + 1;
+                case '$' -> pos = skipDollarQuoted(sql, pos);
+                case '?' -> {
+                    if (pos + 1 < length && sql.charAt(pos + 1) == '?') {
+                        if (handler != null) {
+                            handler.handle(pos, true);
+                        }
+                        pos += 2; // escaped question mark
+                    } else {
+                        if (handler != null) {
+                            handler.handle(pos, false);
+                        }
+                        count++;
+                        pos++;
+                    }
+                }
+                default -> pos++;
+            }
+        }
+        return count;
+    }
+
+    // position just after the closing quote (or the end of the text)
+    private static int skipQuoted(String sql, int start, char quote) {
+        int pos = start + 1;
+        while (pos < sql.length()) {
+            if (sql.charAt(pos) == quote) {
+                if (pos + 1 < sql.length() && sql.charAt(pos + 1) == quote) {
+                    pos += 2; // doubled quote
+                } else {
+                    return pos + 1;
+                }
+            } else {
+                pos++;
+            }
+        }
+        return pos;
+    }
+
+    // a string literal of the form E'...' allows backslash escapes
+    private static boolean isEscapeString(String sql, int quotePos) {
+        if (quotePos == 0) {
+            return false;
+        }
+        char prefix = sql.charAt(quotePos - 1);
+        return (prefix == 'E' || prefix == 'e')
+                && (quotePos == 1 || !isIdentifierPart(sql.charAt(quotePos - 2)));
+    }
+
+    private static int skipString(String sql, int start, boolean backslashEscapes) {
+        if (!backslashEscapes) {
+            return skipQuoted(sql, start, '\'');
+        }
+        int pos = start + 1;
+        while (pos < sql.length()) {
+            char ch = sql.charAt(pos);
+            if (ch == '\\') {
+                pos += 2;
+            } else if (ch == '\'') {
+                if (pos + 1 < sql.length() && sql.charAt(pos + 1) == '\'') {
+                    pos += 2;
+                } else {
+                    return pos + 1;
+                }
+            } else {
+                pos++;
+            }
+        }
+        return pos;
+    }
+
+    private static int skipLineComment(String sql, int start) {
+        int end = sql.indexOf('\n', start);
+        return end < 0 ? sql.length() : end + 1;
+    }
+
+    // block comments may be nested in PostgreSQL
+    private static int skipBlockComment(String sql, int start) {
+        int depth = 1;
+        int pos = start + 2;
+        while (pos < sql.length() && depth > 0) {
+            if (sql.startsWith("/*", pos)) {
+                depth++;
+                pos += 2;
+            } else if (sql.startsWith("*/", pos)) {
+                depth--;
+                pos += 2;
+            } else {
+                pos++;
+            }
+        }
+        return pos;
+    }
+
+    // $tag$ ... $tag$ where the tag is empty or an identifier. Note that $1 is a positional parameter
+    // and that a $ can also be part of an identifier
+    private static int skipDollarQuoted(String sql, int start) {
+        if (start > 0 && isIdentifierPart(sql.charAt(start - 1))) {
+            return start + 1;
+        }
+        int pos = start + 1;
+        if (pos < sql.length() && Character.isDigit(sql.charAt(pos))) {
+            return pos;
+        }
+        while (pos < sql.length() && sql.charAt(pos) != '$') {
+            if (!isIdentifierPart(sql.charAt(pos))) {
+                return start + 1;
+            }
+            pos++;
+        }
+        if (pos >= sql.length()) {
+            return start + 1;
+        }
+        String tag = sql.substring(start, pos + 1);
+        int end = sql.indexOf(tag, pos + 1);
+        return end < 0 ? sql.length() : end + tag.length();
+    }
+
+    private static boolean isIdentifierPart(char ch) {
+        return Character.isLetterOrDigit(ch) || ch == '_' || ch == '$';
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * StatementCache.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Bounded cache of prepared statements for a single connection. Statements are keyed by their
+ * SQL text and the way generated keys are returned. When the cache is full, the least recently used
+ * statement is closed.
+ * <p>A statement is removed from the cache while it is in use, and returned to it when the corresponding
+ * {@link CachedStatement} is closed. Hence, the same prepared statement is never used by two queries
+ * at the same time, even when queries are nested.</p>
+ */
+final class StatementCache {
+
+    /**
+     * Key mode for statements that do not return generated keys
+     */
+    static final String NO_KEYS = "";
+
+    /**
+     * Key mode for statements that return all generated keys
+     */
+    static final String ALL_KEYS = "*";
+
+    record Key(String sql, String keys) {
+    }
+
+    private final Connection connection;
+
+    private final int capacity;
+
+    private final LinkedHashMap<Key, PreparedStatement> idle;
+
+    private boolean closed;
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    StatementCache(Connection connection, int capacity) {
+        this.connection = connection;
+        this.capacity = capacity;
+        this.idle = new LinkedHashMap<>();
+    }
+
+    /**
+     * Retrieve a prepared statement for the given SQL from the cache, or prepare a new one.
+     *
+     * @param keys {@link #NO_KEYS}, {@link #ALL_KEYS} or the name of the column that contains the generated key
+     * @param owner context whose lock is released when the statement is closed
+     */
+    synchronized CachedStatement acquire(String sql, String keys, BaseDAC owner) throws SQLException {
+        Key key = new Key(sql, keys);
+        PreparedStatement ps = idle.remove(key);
+        if (ps == null) {
+            misses++;
+            ps = prepare(sql, keys);
+        } else {
+            hits++;
+        }
+        return new CachedStatement(this, key, ps, owner);
+    }
+
+    private PreparedStatement prepare(String sql, String keys) throws SQLException {
+        if (NO_KEYS.equals(keys)) {
+            return connection.prepareStatement(sql);
+        } else if (ALL_KEYS.equals(keys)) {
+            return connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+        } else {
+            return connection.prepareStatement(sql, new String[]{keys});
+        }
+    }
+
+    /**
+     * Returns a statement to the cache after use. Closes the statement when it cannot be cached.
+     */
+    synchronized void release(Key key, PreparedStatement ps) throws SQLException {
+        if (closed || capacity <= 0 || ps.isClosed()) {
+            ps.close();
+            return;
+        }
+        ps.clearParameters();
+        ps.clearBatch(); // rows of a batch that failed before it was executed
+        PreparedStatement previous = idle.put(key, ps);
+        if (previous != null) {
+            // the same statement was in use twice at the same time
+            previous.close();
+        }
+        if (idle.size() > capacity) {
+            Iterator<PreparedStatement> iterator = idle.values().iterator();
+            PreparedStatement eldest = iterator.next();
+            iterator.remove();
+            evictions++;
+            eldest.close();
+        }
+    }
+
+    /**
+     * Closes all statements that are currently in the cache. Statements that are still in use
+     * are closed when they are released.
+     */
+    synchronized void close() throws SQLException {
+        closed = true;
+        List<PreparedStatement> statements = new ArrayList<>(idle.values());
+        idle.clear();
+        SQLException exception = null;
+        for (PreparedStatement ps : statements) {
+            try {
+                ps.close();
+            } catch (SQLException ex) {
+                if (exception == null) {
+                    exception = ex;
+                } else {
+                    exception.addSuppressed(ex);
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    synchronized StatementCacheStatistics getStatistics() {
+        return new StatementCacheStatistics(capacity, idle.size(), hits, misses, evictions);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * StatementCacheStatistics.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+/**
+ * Snapshot of the counters of the prepared statement cache of a data access context.
+ * Use these to choose an appropriate cache size, see {@link BaseDAC#getStatementCacheSize}.
+ */
+public class StatementCacheStatistics {
+
+    private final int capacity;
+
+    private final int size;
+
+    private final long hits;
+
+    private final long misses;
+
+    private final long evictions;
+
+    StatementCacheStatistics(int capacity, int size, long hits, long misses, long evictions) {
+        this.capacity = capacity;
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    /**
+     * Maximum number of statements kept in the cache
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Number of statements currently in the cache (excluding statements in use)
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Number of times a statement could be reused from the cache
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Number of times a new statement had to be prepared
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Number of statements that were closed because the cache was full
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Fraction of statement requests that were served from the cache, or 0 when there were no requests
+     */
+    public double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "StatementCacheStatistics{capacity=" + capacity + ", size=" + size +
+                ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "}";
+    }
+}
@@ -15,7 +15,7 @@ import java.sql.SQLException;
 /**
  * Implementation of {@link Parameter} for strings.
  */
-class StringParameter implements Parameter {
+class StringParameter implements TextParameter {
 
     private final String par;
 
@@ -27,4 +27,9 @@ class StringParameter implements Parameter {
     public void setParameter(PreparedStatement ps, int index) throws SQLException{
         ps.setString(index, par);
     }
+
+    @Override
+    public String getText() {
+        return par;
+    }
 }
@@ -0,0 +1,94 @@
+/*
+ * SupportsBind.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Interface that introduces the 'bind'-methods for all templates in this package. Named slots are
+ * bound by name, positional slots by position (starting from 1). Bound values remain in effect until
+ * they are replaced.
+ */
+public interface SupportsBind<T> {
+
+    T bind(String name, Parameter value);
+
+    T bind(int position, Parameter value);
+
+    T bind(String name, int value);
+
+    T bind(int position, int value);
+
+    T bind(String name, double value);
+
+    T bind(int position, double value);
+
+    T bind(String name, boolean value);
+
+    T bind(int position, boolean value);
+
+    T bind(String name, String value);
+
+    T bind(int position, String value);
+
+    default T bind(String name, LocalDateTime value) {
+        return bind(name, new LocalDateTimeParameter(value));
+    }
+
+    default T bind(int position, LocalDateTime value) {
+        return bind(position, new LocalDateTimeParameter(value));
+    }
+
+    default T bind(String name, LocalDate value) {
+        return bind(name, new LocalDateParameter(value));
+    }
+
+    default T bind(int position, LocalDate value) {
+        return bind(position, new LocalDateParameter(value));
+    }
+
+    default T bind(String name, LocalTime value) {
+        return bind(name, new LocalTimeParameter(value));
+    }
+
+    default T bind(int position, LocalTime value) {
+        return bind(position, new LocalTimeParameter(value));
+    }
+
+    default T bind(String name, Instant value) {
+        return bind(name, new InstantParameter(value));
+    }
+
+    default T bind(int position, Instant value) {
+        return bind(position, new InstantParameter(value));
+    }
+
+    default T bind(String name, byte[] value) {
+        return bind(name, new BytesParameter(value));
+    }
+
+    default T bind(int position, byte[] value) {
+        return bind(position, new BytesParameter(value));
+    }
+
+    /**
+     * Binds an enum value. The slot should have been created with the SQL type of the enum.
+     */
+    default <E extends Enum<E>> T bind(String name, E value) {
+        return bind(name, value.toString());
+    }
+
+    default <E extends Enum<E>> T bind(int position, E value) {
+        return bind(position, value.toString());
+    }
+}
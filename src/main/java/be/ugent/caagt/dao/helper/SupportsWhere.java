@@ -44,6 +44,13 @@ public interface SupportsWhere<T> {
         return where(new WhereClause(clause, parameter));
     }
 
+    /**
+     * Adds a where clause with a slot, to be bound when the statement is executed as a template
+     */
+    default T where(String clause, Slot slot) {
+        return where(new WhereClause(clause, slot));
+    }
+
     default T where(String clause, LocalDateTime parameter) {
         return where(new WhereClause(clause, parameter));
     }
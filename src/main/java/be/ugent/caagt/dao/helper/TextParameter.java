@@ -0,0 +1,25 @@
+/*
+ * TextParameter.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+/**
+ * Parameter that can also be written in the text format of PostgreSQL. Only parameters of this type
+ * can be used with {@code COPY}, i.e., as values for {@link BaseDAO#copyInto} or as parameters of a query
+ * that is exported with {@link AbstractQueryStatement#copyTo}. All parameter types of this library
+ * implement this interface.
+ */
+public interface TextParameter extends Parameter {
+
+    /**
+     * The value of this parameter in the text format of PostgreSQL (as used by COPY), or null
+     * for an SQL NULL value.
+     */
+    String getText();
+}
@@ -9,6 +9,8 @@
 
 package be.ugent.caagt.dao.helper;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Represents an update or a delete statement
  */
@@ -50,4 +52,21 @@ public class UpdateOrDeleteSQLStatement extends AbstractFilteredStatement implem
         executeUpdate();
     }
 
+    /**
+     * Asynchronous version of {@link #execute()}.
+     * @see BaseDAC#async(Runnable)
+     */
+    public CompletableFuture<Void> executeAsync() {
+        return context.async(this::execute);
+    }
+
+    /**
+     * Freezes this statement into a template that can be executed repeatedly with different values
+     * for its slots.
+     * @see Slot
+     */
+    public UpdateOrDeleteTemplate template() {
+        return new UpdateOrDeleteTemplate(this);
+    }
+
 }
@@ -0,0 +1,103 @@
+/*
+ * UpdateOrDeleteTemplate.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Update or delete statement that can be executed repeatedly with different values for its slots. Obtained by
+ * calling {@link UpdateOrDeleteSQLStatement#template()}.
+ * <p>Like the data access context it belongs to, a template should not be shared between threads.</p>
+ * @see Slot
+ */
+public class UpdateOrDeleteTemplate extends AbstractSQLStatement implements SupportsBind<UpdateOrDeleteTemplate> {
+
+    private final SlotBinding binding;
+
+    UpdateOrDeleteTemplate(UpdateOrDeleteSQLStatement src) {
+        copyAux(src);
+        this.binding = new SlotBinding(params);
+    }
+
+    @Override
+    protected void setParameters(PreparedStatement ps) throws SQLException {
+        binding.setParameters(ps);
+    }
+
+    @Override
+    PersistentList<Parameter> getBoundParameters() {
+        return binding.getParameters();
+    }
+
+    public void execute() {
+        executeUpdate();
+    }
+
+    @Override
+    public UpdateOrDeleteTemplate bind(String name, Parameter value) {
+        binding.bind(binding.slot(name), value);
+        return this;
+    }
+
+    @Override
+    public UpdateOrDeleteTemplate bind(int position, Parameter value) {
+        binding.bind(binding.slot(position), value);
+        return this;
+    }
+
+    @Override
+    public UpdateOrDeleteTemplate bind(String name, int value) {
+        binding.bind(binding.slot(name), value);
+        return this;
+    }
+
+    @Override
+    public UpdateOrDeleteTemplate bind(int position, int value) {
+        binding.bind(binding.slot(position), value);
+        return this;
+    }
+
+    @Override
+    public UpdateOrDeleteTemplate bind(String name, double value) {
+        binding.bind(binding.slot(name), value);
+        return this;
+    }
+
+    @Override
+    public UpdateOrDeleteTemplate bind(int position, double value) {
+        binding.bind(binding.slot(position), value);
+        return this;
+    }
+
+    @Override
+    public UpdateOrDeleteTemplate bind(String name, boolean value) {
+        binding.bind(binding.slot(name), value);
+        return this;
+    }
+
+    @Override
+    public UpdateOrDeleteTemplate bind(int position, boolean value) {
+        binding.bind(binding.slot(position), value);
+        return this;
+    }
+
+    @Override
+    public UpdateOrDeleteTemplate bind(String name, String value) {
+        binding.bind(binding.slot(name), value);
+        return this;
+    }
+
+    @Override
+    public UpdateOrDeleteTemplate bind(int position, String value) {
+        binding.bind(binding.slot(position), value);
+        return this;
+    }
+}
@@ -41,10 +41,13 @@ public class UpdateSQLStatement extends AbstractSQLStatement implements Supports
     void addAuxSet(String name, Parameter parameter) {
         addAux(parameter);
         if (numberOfSets > 0) {
-            stat += ", ";
+            append(", ");
+        }
+        append(name);
+        if (name.indexOf('?') < 0) {
+            append("=");
+            append(parameter.getQuestionMark());
         }
-        name = name.indexOf('?') < 0 ? name + "=" + parameter.getQuestionMark() : name;
-        stat += name;
         numberOfSets = numberOfSets + 1;
     }
 
@@ -64,12 +67,19 @@ public class UpdateSQLStatement extends AbstractSQLStatement implements Supports
         result.copyAux(this);
         result.numberOfSets = numberOfSets + 1;
         if (numberOfSets > 0) {
-            result.stat += ", ";
+            result.append(", ");
         }
-        result.stat += clause;
+        result.append(clause);
         return result;
     }
 
+    /**
+     * Sets a column to a slot, to be bound when the statement is executed as a template
+     */
+    public UpdateSQLStatement set(String name, Slot slot) {
+        return set(name, (Parameter) slot);
+    }
+
     public UpdateSQLStatement set(String name, boolean parameter) {
         return set(name, new BooleanParameter(parameter));
     }
@@ -0,0 +1,63 @@
+/*
+ * UpsertBatch.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+/**
+ * Inserts or updates many rows of the same table. Obtained by calling {@link UpsertHeader#batch}.
+ * Rows are added as follows:
+ * <pre>
+ *     batch.add(row -&gt; row.key("id", id).value("name", name));
+ * </pre>
+ * In multi-row mode, no two rows of the same chunk may have the same key, because PostgreSQL does not allow
+ * a single statement to update the same row twice.
+ */
+public class UpsertBatch extends AbstractBatch<UpsertHeader, UpsertSQLStatement, UpsertBatch> {
+
+    private final boolean skipUnchanged;
+
+    UpsertBatch(UpsertHeader prototype, int chunkSize) {
+        super(prototype, prototype.context, chunkSize);
+        this.skipUnchanged = prototype.skipUnchanged;
+    }
+
+    // an unchanged row returns no key, so the keys could not be matched to the rows
+    private void checkKeysWithoutSkip() {
+        if (skipUnchanged) {
+            throw new IllegalStateException("Generated keys cannot be returned when unchanged rows are skipped");
+        }
+    }
+
+    /**
+     * {@inheritDoc} Not allowed in combination with {@link UpsertHeader#skipUnchanged()}.
+     */
+    @Override
+    public UpsertBatch returnKeys() {
+        checkKeysWithoutSkip();
+        return super.returnKeys();
+    }
+
+    /**
+     * {@inheritDoc} Not allowed in combination with {@link UpsertHeader#skipUnchanged()}.
+     */
+    @Override
+    public UpsertBatch returnKeys(String columnName) {
+        checkKeysWithoutSkip();
+        return super.returnKeys(columnName);
+    }
+
+    /**
+     * Count how many rows were inserted and how many existing rows were updated. The counts are available
+     * from the {@link BatchResult}. Must be called before rows are added.
+     */
+    public UpsertBatch countChanges() {
+        countChangesAux();
+        return this;
+    }
+}
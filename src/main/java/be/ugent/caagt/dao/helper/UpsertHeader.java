@@ -13,7 +13,6 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.ArrayList;
 
 /**
  * Represents an upsert statement. Allows key clauses followed by value clauses. Can be finalized by calling {@link #execute}
@@ -21,9 +20,24 @@ import java.util.ArrayList;
  */
 public class UpsertHeader extends InsertOrUpsert<UpsertSQLStatement> {
 
+    boolean skipUnchanged;
+
     UpsertHeader(String table, BaseDAC context) {
         super(table, context);
-        this.values = new ArrayList<>();
+        this.values = PersistentList.empty();
+    }
+
+    /**
+     * Do not update an existing row when none of its values would change. This avoids writing a new version of
+     * the row (and the corresponding WAL) for idempotent updates. Use {@link #executeWithCount()} or
+     * {@link UpsertBatch#countChanges()} to find out how many rows were actually modified. A batch with this
+     * option cannot return generated keys.
+     */
+    public UpsertHeader skipUnchanged() {
+        UpsertHeader result = new UpsertHeader(table, context);
+        result.values = values;
+        result.skipUnchanged = true;
+        return result;
     }
 
     @Override
@@ -35,17 +49,25 @@ public class UpsertHeader extends InsertOrUpsert<UpsertSQLStatement> {
         return new UpsertSQLStatement(this).value(parameters);
     }
 
+    /**
+     * Creates a batch that inserts or updates many rows of the same table, sent to the database in chunks
+     * of the given size. Keys already added to this statement are shared by all rows of the batch.
+     */
+    public UpsertBatch batch(int chunkSize) {
+        return new UpsertBatch(this, chunkSize);
+    }
+
     private UpsertHeader copyAndAdd(String name, Parameter value) {
         UpsertHeader result = new UpsertHeader(table, context);
-        result.values = new ArrayList<>(this.values);
-        result.values.add(new NamedParameter(name, value));
+        result.values = values.append(new NamedParameter(name, value));
+        result.skipUnchanged = skipUnchanged;
         return result;
     }
 
     public UpsertHeader key(NamedParameterList list) {
         UpsertHeader result = new UpsertHeader(table, context);
-        result.values = new ArrayList<>(this.values);
-        list.addToParameterList(result.values);
+        result.values = list.addToParameterList(values);
+        result.skipUnchanged = skipUnchanged;
         return result;
     }
 
@@ -89,8 +111,10 @@ public class UpsertHeader extends InsertOrUpsert<UpsertSQLStatement> {
         return copyAndAdd(name, new EnumParameter<>(value, context.getEnumClassTranslator()));
     }
 
-    protected String getFullStatement() {
-        return super.getFullStatement() + " ON CONFLICT DO NOTHING";
+    @Override
+    protected void render(StringBuilder builder, int rows) {
+        super.render(builder, rows);
+        builder.append(" ON CONFLICT DO NOTHING");
     }
 
 }
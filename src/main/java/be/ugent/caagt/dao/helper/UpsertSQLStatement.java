@@ -9,19 +9,28 @@
 
 package be.ugent.caagt.dao.helper;
 
-import java.util.ArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Represents an upsert statement with initialized 'key'-values. Allows value-clauses. Finalize by calling {@link #execute}.
  */
 public class UpsertSQLStatement extends InsertOrUpsert<UpsertSQLStatement> {
 
+    // table with an alias of its own, as in 'stuff AS s'
+    private static final Pattern ALIASED = Pattern.compile("(?is).*\\sAS\\s+(\\w+)\\s*");
+
+    private static final String TARGET_ALIAS = "__daohelper__target";
+
     private int numberOfKeys;
 
+    private boolean skipUnchanged;
+
     UpsertSQLStatement(UpsertHeader header) {
         super(header.table, header.context);
-        this.values= new ArrayList<>(header.values);
+        this.values = header.values;
         this.numberOfKeys = header.values.size();
+        this.skipUnchanged = header.skipUnchanged;
     }
 
     private UpsertSQLStatement(String table, BaseDAC context) {
@@ -31,27 +40,48 @@ public class UpsertSQLStatement extends InsertOrUpsert<UpsertSQLStatement> {
     public UpsertSQLStatement value(String name, Parameter value) {
         UpsertSQLStatement result = new UpsertSQLStatement(table, context);
         result.numberOfKeys = numberOfKeys;
-        result.values = new ArrayList<>(this.values);
-        result.values.add(new NamedParameter(name, value));
+        result.skipUnchanged = skipUnchanged;
+        result.values = values.append(new NamedParameter(name, value));
         return result;
     }
 
     public UpsertSQLStatement value(NamedParameterList parameters) {
         UpsertSQLStatement result = new UpsertSQLStatement(table, context);
         result.numberOfKeys = numberOfKeys;
-        result.values = new ArrayList<>(this.values);
-        parameters.addToParameterList(result.values);
+        result.skipUnchanged = skipUnchanged;
+        result.values = parameters.addToParameterList(values);
         return result;
     }
 
     @Override
-    protected String getFullStatement() {
+    boolean hasSameStatement(UpsertSQLStatement other) {
+        return numberOfKeys == other.numberOfKeys && skipUnchanged == other.skipUnchanged &&
+                super.hasSameStatement(other);
+    }
+
+    // the comparison of skipUnchanged() refers to the target by an alias, so that it works for any table expression
+    @Override
+    String getTarget() {
+        if (!skipUnchanged || numberOfKeys == 0 || ALIASED.matcher(table).matches()) {
+            return table;
+        } else {
+            return table + " AS " + TARGET_ALIAS;
+        }
+    }
+
+    private String getTargetAlias() {
+        Matcher matcher = ALIASED.matcher(table);
+        return matcher.matches() ? matcher.group(1) : TARGET_ALIAS;
+    }
+
+    @Override
+    protected void render(StringBuilder builder, int rows) {
+        super.render(builder, rows);
         if (numberOfKeys == 0) {
             // behaves like an insert statement
-            return super.getFullStatement();
+            return;
         }
 
-        StringBuilder builder = new StringBuilder(super.getFullStatement());
         builder.append (" ON CONFLICT (")
                .append (values.get(0).getName());
         for (int i=1; i < numberOfKeys; i++) {
@@ -67,6 +97,24 @@ public class UpsertSQLStatement extends InsertOrUpsert<UpsertSQLStatement> {
                 .append (" = EXCLUDED.")
                 .append (values.get(i).getName());
         }
-        return builder.toString();
+        if (skipUnchanged) {
+            // only update when at least one value changes (NULL-safe comparison)
+            String alias = getTargetAlias();
+            builder.append(" WHERE (");
+            for (int i=numberOfKeys; i < values.size(); i++) {
+                if (i > numberOfKeys) {
+                    builder.append(",");
+                }
+                builder.append(alias).append(".").append(values.get(i).getName());
+            }
+            builder.append(") IS DISTINCT FROM (");
+            for (int i=numberOfKeys; i < values.size(); i++) {
+                if (i > numberOfKeys) {
+                    builder.append(",");
+                }
+                builder.append("EXCLUDED.").append(values.get(i).getName());
+            }
+            builder.append(")");
+        }
     }
 }
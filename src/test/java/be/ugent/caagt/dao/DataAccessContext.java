@@ -22,4 +22,9 @@ public class DataAccessContext extends BaseDAC{
         super(connection);
     }
 
+    @Override
+    protected Connection getConnection() {
+        return super.getConnection();
+    }
+
 }
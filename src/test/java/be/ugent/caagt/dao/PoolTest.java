@@ -0,0 +1,154 @@
+/*
+ * PoolTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.postgresql.PGConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the connection pool of {@link DataAccessProvider}
+ */
+public class PoolTest {
+
+    private DataAccessProvider<DataAccessContext> provider;
+
+    @Before
+    public void createProvider() {
+        provider = new DataAccessProvider<>(Provider.URL, DataAccessContext::new)
+                .maxSize(2)
+                .maxWait(Duration.ofMillis(100));
+    }
+
+    @After
+    public void closeProvider() {
+        provider.close();
+    }
+
+    @Test
+    public void reusesConnections() {
+        for (int i = 0; i < 10; i++) {
+            try (DataAccessContext context = provider.getContext()) {
+                assertThat(context.getConnection()).isNotNull();
+            }
+        }
+        PoolStatistics statistics = provider.getStatistics();
+        assertThat(statistics.getBorrows()).isEqualTo(10L);
+        assertThat(statistics.getCreations()).isEqualTo(1L);
+        assertThat(statistics.getIdle()).isEqualTo(1);
+    }
+
+    @Test(expected = DACException.class)
+    public void maxSize() {
+        DataAccessContext first = provider.getContext();
+        DataAccessContext second = provider.getContext();
+        try {
+            provider.getContext();
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    @Test
+    public void waitsForConnection() throws Exception {
+        provider.maxWait(Duration.ofSeconds(10));
+        DataAccessContext first = provider.getContext();
+        DataAccessContext second = provider.getContext();
+        Thread thread = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ex) {
+                // ignore
+            }
+            first.close();
+        });
+        thread.start();
+        try (DataAccessContext third = provider.getContext()) {
+            assertThat(third.getConnection()).isNotNull();
+        }
+        thread.join();
+        second.close();
+        assertThat(provider.getStatistics().getMaxWaitNanos()).isGreaterThan(0L);
+        assertThat(provider.getStatistics().getCreations()).isEqualTo(2L);
+    }
+
+    @Test
+    public void restoresAutoCommit() throws SQLException {
+        try (DataAccessContext context = provider.getContext()) {
+            context.begin();
+            assertThat(context.getConnection().getAutoCommit()).isFalse();
+        }
+        try (DataAccessContext context = provider.getContext()) {
+            assertThat(context.getConnection().getAutoCommit()).isTrue();
+        }
+        assertThat(provider.getStatistics().getCreations()).isEqualTo(1L);
+    }
+
+    @Test
+    public void closedConnection() throws SQLException {
+        Connection connection;
+        try (DataAccessContext context = provider.getContext()) {
+            connection = context.getConnection();
+            assertThat(connection.isClosed()).isFalse();
+        }
+        assertThat(connection.isClosed()).isTrue();
+    }
+
+    @Test
+    public void unwrap() throws SQLException {
+        try (DataAccessContext context = provider.getContext()) {
+            assertThat(context.getConnection().isWrapperFor(PGConnection.class)).isTrue();
+            assertThat(context.getConnection().unwrap(PGConnection.class)).isNotNull();
+        }
+    }
+
+    @Test
+    public void opensMinimumIdle() throws InterruptedException {
+        // the default minimum is opened when the provider is created
+        assertThat(provider.getStatistics().getIdle()).isEqualTo(1);
+        provider.minIdle(2).idleTimeout(Duration.ofMillis(200));
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (provider.getStatistics().getIdle() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(provider.getStatistics().getIdle()).isEqualTo(2);
+        assertThat(provider.getStatistics().getCreations()).isEqualTo(2L);
+    }
+
+    @Test
+    public void idleEviction() {
+        provider.minIdle(0).idleTimeout(Duration.ZERO);
+        provider.getContext().close();
+        assertThat(provider.getStatistics().getSize()).isZero();
+        assertThat(provider.getStatistics().getEvictions()).isEqualTo(1L);
+    }
+
+    @Test
+    public void idleEvictionWithoutLoad() throws InterruptedException {
+        provider.minIdle(0).idleTimeout(Duration.ofMillis(200));
+        provider.getContext().close();
+        assertThat(provider.getStatistics().getIdle()).isEqualTo(1);
+        // no further borrows or returns, the connection must be evicted in the background
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (provider.getStatistics().getSize() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(provider.getStatistics().getSize()).isZero();
+        assertThat(provider.getStatistics().getEvictions()).isEqualTo(1L);
+    }
+}
@@ -9,8 +9,6 @@
 
 package be.ugent.caagt.dao;
 
-import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
 
@@ -19,15 +17,15 @@ import java.sql.Statement;
  */
 public class Provider {
 
-    private Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(
-                "jdbc:postgresql://localhost/daohelpertestdb?user=daohelpertestuser&password=daohelper"
-        );
-    }
+    public static final String URL = "jdbc:postgresql://localhost/daohelpertestdb?user=daohelpertestuser&password=daohelper";
+
+    // shared by all tests
+    private static final DataAccessProvider<DataAccessContext> POOL =
+            new DataAccessProvider<>(URL, DataAccessContext::new);
 
     private void truncateTable() {
-        try (Connection connection = getConnection();
-             Statement stat = connection.createStatement()) {
+        try (DataAccessContext context = POOL.getContext();
+             Statement stat = context.getConnection().createStatement()) {
             stat.executeUpdate("TRUNCATE TABLE persons");
         } catch (SQLException ex) {
             throw new RuntimeException("Could not truncate table", ex);
@@ -39,11 +37,7 @@ public class Provider {
     }
 
     public DataAccessContext getContext() {
-        try {
-            return new DataAccessContext(getConnection());
-        } catch (SQLException ex) {
-            throw new DataAccessException("Could not obtain connection", ex);
-        }
+        return POOL.getContext();
     }
 
 }
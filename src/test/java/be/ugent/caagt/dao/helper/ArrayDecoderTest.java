@@ -0,0 +1,208 @@
+/*
+ * ArrayDecoderTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the decoding of arrays in PostgreSQL binary and text format, without a database
+ */
+public class ArrayDecoderTest {
+
+    private static final int INT2 = 21;
+    private static final int INT4 = 23;
+    private static final int INT8 = 20;
+    private static final int FLOAT4 = 700;
+    private static final int FLOAT8 = 701;
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(ArrayDecoderTest.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    // result set with a single column that contains the given raw value
+    private static ResultSet column(byte[] value) {
+        return proxy(ResultSet.class, (proxy, method, args) -> {
+            if (method.getName().equals("getBytes")) {
+                return value;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    // result set with a single column of the given type, in text format, that also supports getArray
+    private static ResultSet column(String text, String typeName, Object... elements) {
+        ResultSetMetaData metaData = proxy(ResultSetMetaData.class, (proxy, method, args) -> {
+            if (method.getName().equals("getColumnTypeName")) {
+                return typeName;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+        Array array = proxy(Array.class, (proxy, method, args) -> {
+            if (method.getName().equals("getArray")) {
+                return elements;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+        return proxy(ResultSet.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getBytes" -> text.getBytes(StandardCharsets.UTF_8);
+            case "getMetaData" -> metaData;
+            case "getArray" -> array;
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private static ResultSet text(String value) {
+        return column(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // header of an array in binary format, with room for the given number of elements of at most 8 bytes
+    private static ByteBuffer binary(int oid, int elements, int... dims) {
+        ByteBuffer buffer = ByteBuffer.allocate(12 + 8 * dims.length + 12 * elements);
+        buffer.putInt(dims.length).putInt(0).putInt(oid);
+        for (int dim : dims) {
+            buffer.putInt(dim).putInt(1);
+        }
+        return buffer;
+    }
+
+    private static ResultSet column(ByteBuffer buffer) {
+        return column(Arrays.copyOf(buffer.array(), buffer.position()));
+    }
+
+    @Test
+    public void binaryInts() throws SQLException {
+        ByteBuffer buffer = binary(INT4, 3, 3);
+        for (int value : new int[]{2, -4, Integer.MAX_VALUE}) {
+            buffer.putInt(4).putInt(value);
+        }
+        assertThat(ArrayDecoder.toIntArray(column(buffer), 1)).containsExactly(2, -4, Integer.MAX_VALUE);
+        assertThat(ArrayDecoder.toLongArray(column(buffer), 1)).containsExactly(2L, -4L, (long) Integer.MAX_VALUE);
+        assertThat(ArrayDecoder.toDoubleArray(column(buffer), 1)).containsExactly(2.0, -4.0, (double) Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void binarySmallIntsAndLongs() throws SQLException {
+        ByteBuffer shorts = binary(INT2, 2, 2);
+        shorts.putInt(2).putShort((short) 7).putInt(2).putShort((short) -8);
+        assertThat(ArrayDecoder.toIntArray(column(shorts), 1)).containsExactly(7, -8);
+
+        ByteBuffer longs = binary(INT8, 2, 2);
+        longs.putInt(8).putLong(10000000000L).putInt(8).putLong(-1L);
+        assertThat(ArrayDecoder.toLongArray(column(longs), 1)).containsExactly(10000000000L, -1L);
+    }
+
+    @Test(expected = SQLException.class)
+    public void binaryLongDoesNotFitInt() throws SQLException {
+        ByteBuffer longs = binary(INT8, 1, 1);
+        longs.putInt(8).putLong(10000000000L);
+        ArrayDecoder.toIntArray(column(longs), 1);
+    }
+
+    @Test
+    public void binaryDoubles() throws SQLException {
+        ByteBuffer doubles = binary(FLOAT8, 2, 2);
+        doubles.putInt(8).putDouble(1.25).putInt(8).putDouble(-0.5);
+        assertThat(ArrayDecoder.toDoubleArray(column(doubles), 1)).containsExactly(1.25, -0.5);
+
+        ByteBuffer floats = binary(FLOAT4, 2, 2);
+        floats.putInt(4).putFloat(1.5f).putInt(4).putFloat(2.5f);
+        assertThat(ArrayDecoder.toDoubleArray(column(floats), 1)).containsExactly(1.5, 2.5);
+    }
+
+    @Test
+    public void binaryTwoDimensions() throws SQLException {
+        ByteBuffer ints = binary(INT4, 6, 2, 3);
+        for (int i = 1; i <= 6; i++) {
+            ints.putInt(4).putInt(i);
+        }
+        int[][] intResult = ArrayDecoder.to2DimIntArray(column(ints), 1);
+        assertThat(intResult.length).isEqualTo(2);
+        assertThat(intResult[0]).containsExactly(1, 2, 3);
+        assertThat(intResult[1]).containsExactly(4, 5, 6);
+
+        ByteBuffer doubles = binary(FLOAT8, 4, 2, 2);
+        for (int i = 1; i <= 4; i++) {
+            doubles.putInt(8).putDouble(100.0 * i);
+        }
+        double[][] doubleResult = ArrayDecoder.to2DimDoubleArray(column(doubles), 1);
+        assertThat(doubleResult[1]).containsExactly(300.0, 400.0);
+    }
+
+    @Test
+    public void binaryEmpty() throws SQLException {
+        ResultSet rs = column(binary(INT4, 0));
+        assertThat(ArrayDecoder.toIntArray(rs, 1)).isEmpty();
+        assertThat(ArrayDecoder.to2DimIntArray(rs, 1).length).isZero();
+    }
+
+    @Test(expected = SQLException.class)
+    public void binaryNullElement() throws SQLException {
+        ByteBuffer buffer = binary(INT4, 2, 2);
+        buffer.putInt(4).putInt(1).putInt(-1);
+        ArrayDecoder.toIntArray(column(buffer), 1);
+    }
+
+    @Test(expected = SQLException.class)
+    public void binaryWrongDimension() throws SQLException {
+        ByteBuffer buffer = binary(INT4, 4, 2, 2);
+        for (int i = 1; i <= 4; i++) {
+            buffer.putInt(4).putInt(i);
+        }
+        ArrayDecoder.toIntArray(column(buffer), 1);
+    }
+
+    @Test(expected = SQLException.class)
+    public void binaryTruncated() throws SQLException {
+        ByteBuffer buffer = binary(INT4, 2, 2);
+        buffer.putInt(4).putInt(1);
+        ArrayDecoder.toIntArray(column(buffer), 1);
+    }
+
+    @Test
+    public void textFormat() throws SQLException {
+        assertThat(ArrayDecoder.toIntArray(text("{1,-2,3}"), 1)).containsExactly(1, -2, 3);
+        assertThat(ArrayDecoder.toIntArray(text("[0:1]={7,8}"), 1)).containsExactly(7, 8);
+        assertThat(ArrayDecoder.toDoubleArray(text("{1.5,-2e3}"), 1)).containsExactly(1.5, -2000.0);
+        assertThat(ArrayDecoder.to2DimIntArray(text("{{1,2},{3,4}}"), 1)[1]).containsExactly(3, 4);
+        assertThat(ArrayDecoder.toIntArray(text("{}"), 1)).isEmpty();
+    }
+
+    @Test
+    public void textFallback() throws SQLException {
+        assertThat(ArrayDecoder.toIntArray(column("{1.5,2}", "_numeric", new BigDecimal("1.5"), BigDecimal.valueOf(2)), 1))
+                .containsExactly(1, 2);
+        assertThat(ArrayDecoder.toLongArray(column("{1.5}", "_numeric", new BigDecimal("1.5")), 1))
+                .containsExactly(1L);
+    }
+
+    @Test(expected = SQLException.class)
+    public void textInvalidElement() throws SQLException {
+        ArrayDecoder.toIntArray(column("{1.5}", "_float8", 1.5), 1);
+    }
+
+    @Test
+    public void nullColumn() throws SQLException {
+        assertThat(ArrayDecoder.toIntArray(column((byte[]) null), 1)).isNull();
+    }
+}
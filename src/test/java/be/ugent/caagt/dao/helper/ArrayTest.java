@@ -9,9 +9,16 @@
 
 package be.ugent.caagt.dao.helper;
 
+import be.ugent.caagt.dao.DataAccessException;
+import be.ugent.caagt.dao.Provider;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class ArrayTest extends TestDAO {
@@ -188,4 +195,83 @@ public class ArrayTest extends TestDAO {
         assertThat(result[1][0]).isEqualTo(3);
         assertThat(result[1][1]).isEqualTo(4);
     }
+
+    @Test
+    public void primitiveArrays() {
+        assertThat(select("ARRAY[10000000000, -1]::bigint[]").noFrom().getArrayOfLong())
+                .containsExactly(10000000000L, -1L);
+        assertThat(select("ARRAY[1, 2]::smallint[]").noFrom().getArrayOfInt())
+                .containsExactly(1, 2);
+        assertThat(select("ARRAY[1.5, 2.5]::real[]").noFrom().getArrayOfDouble())
+                .containsExactly(1.5, 2.5);
+        assertThat(select("ARRAY[1.25, 2]::numeric[]").noFrom().getArrayOfDouble())
+                .containsExactly(1.25, 2.0);
+        assertThat(select("ARRAY[1.5, 2]::numeric[]").noFrom().getArrayOfInt())
+                .containsExactly(1, 2);
+        assertThat(select("'{}'::int[]").noFrom().getArrayOfInt())
+                .isEmpty();
+        assertThat(select("'[0:1]={7,8}'::int[]").noFrom().getArrayOfInt())
+                .containsExactly(7, 8);
+    }
+
+    @Test(expected = DataAccessException.class)
+    public void nullElement() {
+        select("ARRAY[1, NULL]::int[]").noFrom().getArrayOfInt();
+    }
+
+    @Test
+    public void insideConverter() {
+        List<double[]> list = select("doubles").from("arrayTable").where("id", 5)
+                .getList(rs -> BaseDAO.getArrayOfDouble(rs, "doubles"));
+        assertThat(list.get(0)).containsExactly(DOUBLE_ARRAY);
+    }
+
+    // checks that the value was received in binary format before decoding it
+    private static <T> ResultSetConverter<T> binary(ResultSetConverter<T> decoder) {
+        return rs -> {
+            byte first = rs.getBytes(1)[0];
+            assertThat(first == '{' || first == '[').isFalse();
+            return decoder.convert(rs);
+        };
+    }
+
+    @Test
+    public void binaryTransfer() throws SQLException {
+        // prepareThreshold=-1 forces binary transfer from the first execution on
+        String url = Provider.URL + "&prepareThreshold=-1&binaryTransferEnable=1005,1007,1016,1021,1022";
+        try (Connection connection = DriverManager.getConnection(url)) {
+            BaseDAO dao = new BaseDAO() {
+            };
+            dao.setContext(new BaseDAC(connection) {
+            });
+            assertThat(dao.select("ARRAY[2, 4, 6]").noFrom().getOneObject(binary(rs -> BaseDAO.getArrayOfInt(rs, 1))))
+                    .containsExactly(INT_ARRAY);
+            assertThat(dao.select("ARRAY[1, -2]::smallint[]").noFrom().getOneObject(binary(rs -> BaseDAO.getArrayOfInt(rs, 1))))
+                    .containsExactly(1, -2);
+            assertThat(dao.select("ARRAY[10000000000, -1]").noFrom().getOneObject(binary(rs -> BaseDAO.getArrayOfLong(rs, 1))))
+                    .containsExactly(10000000000L, -1L);
+            assertThat(dao.select("ARRAY[1.5, 2.5]::real[]").noFrom().getOneObject(binary(rs -> BaseDAO.getArrayOfDouble(rs, 1))))
+                    .containsExactly(1.5, 2.5);
+            assertThat(dao.select("'{}'::int[]").noFrom().getOneObject(binary(rs -> BaseDAO.getArrayOfInt(rs, 1))))
+                    .isEmpty();
+            int[][] ints = dao.select("ARRAY[[1, 2], [3, 4]]").noFrom()
+                    .getOneObject(binary(rs -> BaseDAO.get2DimArrayOfInt(rs, 1)));
+            assertThat(ints[1]).containsExactly(3, 4);
+            double[][] doubles = dao.select("ARRAY[[100, 200], [300, 400]]::float8[]").noFrom()
+                    .getOneObject(binary(rs -> BaseDAO.get2DimArrayOfDouble(rs, 1)));
+            assertThat(doubles[1]).containsExactly(300.0, 400.0);
+        }
+    }
+
+    @Test(expected = DataAccessException.class)
+    public void binaryNullElement() throws SQLException {
+        String url = Provider.URL + "&prepareThreshold=-1&binaryTransferEnable=1007";
+        try (Connection connection = DriverManager.getConnection(url)) {
+            BaseDAO dao = new BaseDAO() {
+            };
+            dao.setContext(new BaseDAC(connection) {
+            });
+            dao.select("ARRAY[1, NULL]::int[]").noFrom().getOneObject(binary(rs -> BaseDAO.getArrayOfInt(rs, 1)));
+        }
+    }
 }
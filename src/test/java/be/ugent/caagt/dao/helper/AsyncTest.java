@@ -0,0 +1,111 @@
+/*
+ * AsyncTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import be.ugent.caagt.dao.Page;
+import be.ugent.caagt.dao.UniqueViolation;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests asynchronous versions of terminal operations
+ */
+public class AsyncTest extends TestDAO {
+
+    @Test
+    public void insertAndQuery() throws Exception {
+        List<CompletableFuture<Integer>> keys = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            keys.add(insertInto("persons").value("name", "Async").value("number", i).createAsync());
+        }
+        CompletableFuture<List<Integer>> numbers = select("number").from("persons")
+                .where("name", "Async").orderBy("number")
+                .getListAsync(rs -> rs.getInt(1));
+        // operations are executed in order, so the query sees all inserts
+        assertThat(numbers.get()).hasSize(20);
+        assertThat(keys.get(19).get()).isGreaterThan(keys.get(0).get());
+    }
+
+    @Test
+    public void updateAndDelete() throws Exception {
+        insertInto("persons").value("name", "Async").value("number", 1).execute();
+        update("persons").set("number", 2).where("name", "Async").executeAsync();
+        CompletableFuture<Integer> number = select("number").from("persons").where("name", "Async")
+                .getOneObjectAsync(rs -> rs.getInt(1));
+        deleteFrom("persons").where("name", "Async").executeAsync().get();
+        assertThat(number.get()).isEqualTo(2);
+        assertThat(select("count(*)").from("persons").getInt()).isZero();
+    }
+
+    @Test
+    public void page() throws Exception {
+        for (int i = 0; i < 7; i++) {
+            insertInto("persons").value("name", "Async").value("number", i).executeAsync();
+        }
+        Page<Integer> page = select("number").from("persons").orderBy("number").onlyPage(1, 5)
+                .getPageAsync(rs -> rs.getInt(1)).get();
+        assertThat(page.getList()).containsExactly(5, 6);
+        assertThat(page.getFullSize()).isEqualTo(7);
+    }
+
+    @Test
+    public void exception() throws Exception {
+        insertInto("stuff").value("id", 1).value("val1", "a").value("val2", 1).execute();
+        CompletableFuture<Void> future = insertInto("stuff").value("id", 1).value("val1", "b").value("val2", 2)
+                .executeAsync();
+        try {
+            future.get();
+        } catch (ExecutionException ex) {
+            assertThat(ex.getCause()).isInstanceOf(UniqueViolation.class);
+        }
+        assertThat(future.isCompletedExceptionally()).isTrue();
+    }
+
+    @Test
+    public void general() throws Exception {
+        CompletableFuture<String> name = getContext().async(() -> select("'Bond'").noFrom().getString());
+        assertThat(name.get()).isEqualTo("Bond");
+    }
+
+    @Test
+    public void templateBindingsAreCaptured() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            insertInto("persons").value("name", "Async").value("number", i).execute();
+        }
+        QueryTemplate template = select("number").from("persons").where("number", Slot.named("nr")).template();
+        List<CompletableFuture<Integer>> numbers = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            numbers.add(template.bind("nr", i).getOneObjectAsync(rs -> rs.getInt(1)));
+        }
+        for (int i = 1; i <= 3; i++) {
+            assertThat(numbers.get(i - 1).get()).isEqualTo(i);
+        }
+    }
+
+    @Test
+    public void synchronousWhileAsynchronousPending() throws Exception {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(insertInto("persons").value("name", "Async").value("number", i).executeAsync());
+            insertInto("persons").value("name", "Sync").value("number", i).execute();
+        }
+        for (CompletableFuture<Void> future : futures) {
+            future.get();
+        }
+        assertThat(select("count(*)").from("persons").where("name", "Async").getInt()).isEqualTo(20);
+        assertThat(select("count(*)").from("persons").where("name", "Sync").getInt()).isEqualTo(20);
+    }
+}
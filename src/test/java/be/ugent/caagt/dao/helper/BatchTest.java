@@ -0,0 +1,187 @@
+/*
+ * BatchTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import be.ugent.caagt.dao.DataAccessException;
+import org.junit.Test;
+
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests batch inserts
+ */
+public class BatchTest extends TestDAO {
+
+    @Test
+    public void insertInChunks() {
+        InsertBatch batch = insertInto("persons").value("name", "Doe").batch(2);
+        for (int i = 0; i < 5; i++) {
+            int number = i;
+            batch.add(row -> row.value("number", number));
+        }
+        BatchResult result = batch.execute();
+        assertThat(result.getRowCount()).isEqualTo(5);
+        assertThat(result.getChunkCount()).isEqualTo(3);
+        assertThat(result.getChunkSize(2)).isEqualTo(1);
+        assertThat(
+                select("sum(number)").from("persons").where("name", "Doe").getInt()
+        ).isEqualTo(10);
+    }
+
+    @Test
+    public void generatedKeysInRowOrder() {
+        InsertBatch batch = insertInto("persons").batch(3).returnKeys("id");
+        for (int i = 0; i < 7; i++) {
+            batch.add(insertInto("persons").value("number", 100 + i));
+        }
+        int[] keys = batch.execute().getKeys();
+        assertThat(keys.length).isEqualTo(7);
+        for (int i = 0; i < 7; i++) {
+            assertThat(select("number").from("persons").where("id", keys[i]).getInt()).isEqualTo(100 + i);
+        }
+    }
+
+    @Test
+    public void failedChunkIsDiscarded() {
+        Parameter broken = (ps, index) -> {
+            throw new SQLException("Broken parameter");
+        };
+        InsertBatch batch = insertInto("persons").batch(10)
+                .add(row -> row.value("number", 901))
+                .add(row -> row.value("number", broken));
+        try {
+            batch.execute();
+            throw new AssertionError("Expected failure");
+        } catch (DataAccessException ex) {
+            // expected
+        }
+        // neither the same batch nor a new one with the same statement sends the rows of the failed chunk
+        assertThat(batch.add(row -> row.value("number", 902)).execute().getRowCount()).isEqualTo(1);
+        insertInto("persons").batch(10).add(row -> row.value("number", 903)).execute();
+        assertThat(
+                select("count(*)").from("persons").where("number", 901).getInt()
+        ).isEqualTo(0);
+        assertThat(
+                select("count(*)").from("persons").where("number >= 902 AND number <= 903").getInt()
+        ).isEqualTo(2);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void noKeysRequested() {
+        insertInto("persons").batch(10).add(row -> row.value("number", 1)).execute().getKeys();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rowsMustHaveSameColumns() {
+        insertInto("persons").batch(10)
+                .add(row -> row.value("number", 1))
+                .add(row -> row.value("name", "Doe"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rowsMustHaveSameTable() {
+        insertInto("persons").batch(10)
+                .add(insertInto("persons").value("number", 1))
+                .add(insertInto("stuff").value("number", 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rowsMustHaveSameColumnOrder() {
+        insertInto("persons").batch(10)
+                .add(row -> row.value("number", 1).value("name", "Doe"))
+                .add(row -> row.value("name", "Doe").value("number", 2));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void returnKeysAfterRows() {
+        insertInto("persons").batch(10)
+                .add(row -> row.value("number", 1))
+                .returnKeys();
+    }
+
+    @Test
+    public void multiRowWithKeys() {
+        InsertBatch batch = insertInto("persons").batch(4).multiRow().returnKeys();
+        for (int i = 0; i < 10; i++) {
+            batch.add(row -> row.value("name", "Doe"));
+        }
+        BatchResult result = batch.execute();
+        assertThat(result.getChunkCount()).isEqualTo(3);
+        int[] keys = result.getKeys();
+        assertThat(keys.length).isEqualTo(10);
+        for (int i = 1; i < 10; i++) {
+            assertThat(keys[i]).isGreaterThan(keys[i - 1]);
+        }
+        assertThat(select("count(*)").from("persons").where("name", "Doe").getInt()).isEqualTo(10);
+    }
+
+    @Test
+    public void multiRowRespectsParameterLimit() {
+        int rows = 17000; // two parameters per row
+        InsertBatch batch = insertInto("persons").batch(rows).multiRow();
+        for (int i = 0; i < rows; i++) {
+            int number = i;
+            batch.add(row -> row.value("name", "Doe").value("number", number));
+        }
+        BatchResult result = batch.execute();
+        assertThat(result.getChunkCount()).isEqualTo(2);
+        assertThat(result.getChunkSize(0)).isEqualTo(InsertBatch.MAX_PARAMETERS / 2);
+        assertThat(select("count(*)").from("persons").where("name", "Doe").getInt()).isEqualTo(rows);
+    }
+
+    @Test
+    public void upsertBatch() {
+        insertInto("stuff").value("id", 1).value("val1", "one").value("val2", 1).execute();
+        for (boolean multiRow : new boolean[]{false, true}) {
+            UpsertBatch batch = insertOrUpdateInto("stuff").batch(2);
+            if (multiRow) {
+                batch.multiRow();
+            }
+            for (int i = 1; i <= 3; i++) {
+                int id = i;
+                batch.add(row -> row.key("id", id).value("val1", multiRow ? "multi" : "batch"));
+            }
+            assertThat(batch.execute().getRowCount()).isEqualTo(3);
+            assertThat(
+                    select("count(*)").from("stuff").where("val1", multiRow ? "multi" : "batch").getInt()
+            ).isEqualTo(3);
+        }
+        assertThat(select("val2").from("stuff").where("id", 1).getInt()).isEqualTo(1);
+    }
+
+    @Test
+    public void countInsertedAndUpdated() {
+        insertInto("stuff").value("id", 1).value("val1", "one").execute();
+        insertInto("stuff").value("id", 2).value("val1", "two").execute();
+        for (boolean multiRow : new boolean[]{false, true}) {
+            UpsertBatch batch = insertOrUpdateInto("stuff").batch(2).countChanges().returnKeys("id");
+            if (multiRow) {
+                batch.multiRow();
+            }
+            int offset = multiRow ? 10 : 0;
+            for (int i = 1; i <= 5; i++) {
+                int id = i == 1 || i == 2 ? i : i + offset;
+                batch.add(row -> row.key("id", id).value("val2", id));
+            }
+            BatchResult result = batch.execute();
+            assertThat(result.getInsertedCount()).isEqualTo(3L);
+            assertThat(result.getUpdatedCount()).isEqualTo(2L);
+            assertThat(result.getUnchangedCount()).isEqualTo(0L);
+            assertThat(result.getKeys()).containsExactly(1, 2, 3 + offset, 4 + offset, 5 + offset);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void changesNotCounted() {
+        insertOrUpdateInto("stuff").batch(10).add(row -> row.key("id", 1).value("val2", 1)).execute().getInsertedCount();
+    }
+}
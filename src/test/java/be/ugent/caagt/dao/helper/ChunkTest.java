@@ -0,0 +1,88 @@
+/*
+ * ChunkTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests processing query results in chunks
+ */
+public class ChunkTest extends TestDAO {
+
+    private List<Integer> sizes(boolean overlap) {
+        List<Integer> sizes = new ArrayList<>();
+        select("n").from("generate_series(1,2500) AS n")
+                .processInChunks(1000, rs -> rs.getInt(1), chunk -> sizes.add(chunk.size()), overlap);
+        return sizes;
+    }
+
+    @Test
+    public void chunkSizes() {
+        assertThat(sizes(false)).containsExactly(1000, 1000, 500);
+    }
+
+    @Test
+    public void chunkSizesWithOverlap() {
+        assertThat(sizes(true)).containsExactly(1000, 1000, 500);
+    }
+
+    @Test
+    public void allRowsInOrder() {
+        List<Integer> rows = new ArrayList<>();
+        select("n").from("generate_series(1,10) AS n").orderBy("n")
+                .processInChunks(3, rs -> rs.getInt(1), rows::addAll, true);
+        assertThat(rows).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+    }
+
+    @Test
+    public void reusesBuffer() {
+        List<List<Integer>> chunks = new ArrayList<>();
+        select("n").from("generate_series(1,10) AS n")
+                .processInChunks(2, rs -> rs.getInt(1), chunks::add);
+        assertThat(chunks).hasSize(5);
+        assertThat(chunks.get(4)).isSameAs(chunks.get(0));
+    }
+
+    @Test
+    public void emptyResult() {
+        List<Integer> sizes = new ArrayList<>();
+        select("n").from("generate_series(1,0) AS n")
+                .processInChunks(10, rs -> rs.getInt(1), chunk -> sizes.add(chunk.size()), true);
+        assertThat(sizes).isEmpty();
+    }
+
+    @Test
+    public void writePerChunk() {
+        select("n").from("generate_series(1,100) AS n")
+                .processInChunks(30, rs -> rs.getInt(1), chunk -> {
+                    InsertBatch batch = insertInto("persons").batch(chunk.size());
+                    for (int number : chunk) {
+                        batch.add(row -> row.value("name", "Chunk").value("number", number));
+                    }
+                    batch.execute();
+                }, true);
+        assertThat(select("count(*)").from("persons").where("name", "Chunk").getInt()).isEqualTo(100);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void consumerException() {
+        select("n").from("generate_series(1,100) AS n")
+                .processInChunks(10, rs -> rs.getInt(1), chunk -> {
+                    if (chunk.get(0) > 20) {
+                        throw new IllegalStateException();
+                    }
+                }, true);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * ColumnarTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests column oriented query results
+ */
+public class ColumnarTest extends TestDAO {
+
+    @Test
+    public void columns() {
+        ColumnarResult result = select("n AS id, n * 10000000000 AS big, n / 4.0::float8 AS ratio, n % 2 = 0 AS even, " +
+                                       "CASE WHEN n % 3 = 0 THEN NULL ELSE 'v' || (n % 2) END AS label")
+                .from("generate_series(1,1000) AS n").orderBy("n").getColumns();
+        assertThat(result.getRowCount()).isEqualTo(1000);
+        assertThat(result.getColumnCount()).isEqualTo(5);
+
+        ColumnarResult.IntColumn ids = result.getIntColumn("id");
+        assertThat(ids.size()).isEqualTo(1000);
+        assertThat(ids.get(999)).isEqualTo(1000);
+        assertThat(ids.getNulls().isEmpty()).isTrue();
+        assertThat(result.getLongColumn("big").get(1)).isEqualTo(20000000000L);
+        assertThat(result.getDoubleColumn("RATIO").get(1)).isEqualTo(0.5);
+        assertThat(result.getBooleanColumn("even").get(1)).isTrue();
+        assertThat(result.getBooleanColumn("even").getTrues().cardinality()).isEqualTo(500);
+
+        ColumnarResult.StringColumn labels = result.getStringColumn("label");
+        assertThat(labels.dictionary()).containsExactly("v1", "v0");
+        assertThat(labels.get(0)).isEqualTo("v1");
+        assertThat(labels.get(2)).isNull();
+        assertThat(labels.isNull(2)).isTrue();
+        assertThat(labels.codes()[2]).isEqualTo(-1);
+        assertThat(labels.getNulls().cardinality()).isEqualTo(333);
+    }
+
+    @Test
+    public void numericAsText() {
+        ColumnarResult result = select("12345678901234567890.12::numeric AS amount").noFrom().getColumns();
+        assertThat(result.getStringColumn("amount").get(0)).isEqualTo("12345678901234567890.12");
+    }
+
+    @Test
+    public void nulls() {
+        insertInto("persons").value("name", "Null").execute();
+        ColumnarResult result = select("number, flag").from("persons").getColumns();
+        assertThat(result.getIntColumn("number").isNull(0)).isTrue();
+        assertThat(result.getBooleanColumn("flag").isNull(0)).isTrue();
+    }
+
+    @Test
+    public void empty() {
+        ColumnarResult result = select("id, name").from("persons").getColumns();
+        assertThat(result.getRowCount()).isZero();
+        assertThat(result.getIntColumn("id").values()).isEmpty();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongType() {
+        select("id, name").from("persons").getColumns().getIntColumn("name");
+    }
+}
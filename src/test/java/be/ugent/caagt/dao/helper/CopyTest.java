@@ -0,0 +1,165 @@
+/*
+ * CopyTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests bulk loading with COPY
+ */
+public class CopyTest extends TestDAO {
+
+    enum Color {
+        RED, GREEN, BLUE
+    }
+
+    @Test
+    public void loadManyRows() {
+        long count = copyInto("persons").bufferSize(100).load(
+                IntStream.range(0, 1000).boxed(),
+                (row, i) -> row.value("name", "Doe").value("number", i).value("flag", i % 2 == 0)
+        );
+        assertThat(count).isEqualTo(1000L);
+        assertThat(select("sum(number)").from("persons").where("name", "Doe").getInt()).isEqualTo(499500);
+        assertThat(select("count(*)").from("persons").where("flag", true).getInt()).isEqualTo(500);
+    }
+
+    @Test
+    public void loadSpecialValues() {
+        LocalDateTime dateTime = LocalDateTime.of(2014, 4, 1, 12, 0, 30);
+        LocalDate date = LocalDate.of(1990, 2, 28);
+        Instant instant = Instant.ofEpochSecond(120000);
+        String name = "tab\tnew\nline\\back";
+        copyInto("persons").load(List.of(1, 2),
+                (row, i) -> row.value("number", i)
+                        .value("name", i == 1 ? name : null)
+                        .value("registered", dateTime)
+                        .value("birthday", date)
+                        .value("stamp", instant)
+        );
+        assertThat(select("name").from("persons").where("number", 1).getString()).isEqualTo(name);
+        assertThat(select("name").from("persons").where("number", 2).getString()).isNull();
+        assertThat(select("registered").from("persons").where("number", 1).getOneLocalDateTime()).isEqualTo(dateTime);
+        assertThat(select("birthday").from("persons").where("number", 1).getOneLocalDate()).isEqualTo(date);
+        assertThat(select("stamp").from("persons").where("number", 1).getOneInstant()).isEqualTo(instant);
+    }
+
+    @Test
+    public void loadArraysBytesAndEnums() {
+        copyInto("arrayTable").load(List.of(1),
+                (row, i) -> row.value("id", i)
+                        .value("strs", new String[]{"a b", "c\"d", null})
+                        .value("ints", new int[]{1, 2, 3})
+                        .value("doubles", new double[]{1.5, -2.0})
+        );
+        assertThat(select("strs").from("arrayTable").where("id", 1).getArrayOfString())
+                .containsExactly("a b", "c\"d", null);
+        assertThat(select("ints").from("arrayTable").where("id", 1).getArrayOfInteger())
+                .containsExactly(1, 2, 3);
+
+        byte[] code = {0, 1, -1, 127};
+        copyInto("byteTable").load(List.of(1), (row, i) -> row.value("id", i).value("code", code));
+        assertThat(select("code").from("byteTable").where("id", 1).getBytes()).containsExactly(code);
+
+        copyInto("colors").load(List.of(Color.values()), (row, color) -> row.value("id", color.ordinal()).value("color", color));
+        assertThat(select("count(*)").from("colors").getInt()).isEqualTo(3);
+    }
+
+    @Test
+    public void loadNothing() {
+        assertThat(copyInto("persons").load(List.<Integer>of(), (row, i) -> row.value("number", i))).isEqualTo(0L);
+    }
+
+    @Test
+    public void exportCsv() {
+        copyInto("persons").load(List.of(1, 2, 3),
+                (row, i) -> row.value("name", i == 2 ? "O'Brien, \\Jr" : "Doe").value("number", i));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = select("name, number").from("persons")
+                .where("number > ?", 1)
+                .where("name <> ?", "Doe")
+                .orderBy("number")
+                .copyTo(out, CopyFormat.CSV_WITH_HEADER);
+        assertThat(count).isEqualTo(1L);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("name,number\n\"O'Brien, \\Jr\",2\n");
+    }
+
+    @Test
+    public void exportTextToChannel() {
+        copyInto("persons").load(IntStream.range(0, 1000).boxed(),
+                (row, i) -> row.value("name", "Doe").value("number", i));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = select("number").from("persons")
+                .where("name", "Doe")
+                .orderBy("number")
+                .copyTo(Channels.newChannel(out), CopyFormat.TEXT);
+        assertThat(count).isEqualTo(1000L);
+        assertThat(out.toString(StandardCharsets.UTF_8)).startsWith("0\n1\n2\n").endsWith("\n999\n");
+    }
+
+    @Test
+    public void exportTemplate() {
+        copyInto("persons").load(List.of(1, 2, 3),
+                (row, i) -> row.value("name", i == 2 ? "Roe" : "Doe").value("number", i));
+        QueryTemplate template = select("number").from("persons")
+                .where("name", Slot.named("name"))
+                .where("number > ?", Slot.named("min"))
+                .orderBy("number")
+                .template();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(template.bind("name", "Doe").bind("min", 0).copyTo(out, CopyFormat.TEXT)).isEqualTo(2L);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("1\n3\n");
+        out.reset();
+        assertThat(template.bind("name", "Roe").copyTo(out, CopyFormat.TEXT)).isEqualTo(1L);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("2\n");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void exportTemplateWithUnboundSlot() {
+        select("number").from("persons").where("name", Slot.named("name")).template()
+                .copyTo(new ByteArrayOutputStream(), CopyFormat.TEXT);
+    }
+
+    @Test
+    public void exportBinary() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        select("n").from("generate_series(1, ?) AS n").parameter(10).copyTo(out, CopyFormat.BINARY);
+        assertThat(new String(out.toByteArray(), 0, 6, StandardCharsets.ISO_8859_1)).isEqualTo("PGCOPY");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rowsMustHaveSameColumns() {
+        copyInto("persons").load(List.of(1, 2),
+                (row, i) -> i == 1 ? row.value("number", i) : row.value("name", "Doe"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void loadRequiresTextFormat() {
+        Parameter custom = (ps, index) -> ps.setInt(index, 1);
+        copyInto("persons").load(List.of(1), (row, i) -> row.value("number", custom));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void exportRequiresTextFormat() {
+        Parameter custom = (ps, index) -> ps.setInt(index, 1);
+        select("number").from("persons").where("number = ?").parameter(custom).copyTo(new ByteArrayOutputStream(), CopyFormat.TEXT);
+    }
+}
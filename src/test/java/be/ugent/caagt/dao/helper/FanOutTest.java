@@ -0,0 +1,111 @@
+/*
+ * FanOutTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import be.ugent.caagt.dao.DataAccessException;
+import be.ugent.caagt.dao.Provider;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests concurrent execution of independent queries
+ */
+public class FanOutTest extends TestDAO {
+
+    private static Provider contexts;
+
+    @BeforeClass
+    public static void createContexts() {
+        contexts = new Provider();
+    }
+
+    @Test
+    public void concurrent() {
+        long start = System.nanoTime();
+        try (FanOut fanOut = new FanOut(contexts::getContext)) {
+            FanOut.Subtask<List<Integer>> numbers = fanOut.fork(
+                    select("n").from("generate_series(1,5) AS n, pg_sleep(0.5)").orderBy("n"),
+                    s -> s.getList(rs -> rs.getInt(1))
+            );
+            FanOut.Subtask<Integer> sum = fanOut.fork(
+                    select("sum(n)").from("generate_series(1,10) AS n, pg_sleep(0.5)"),
+                    s -> s.getInt()
+            );
+            FanOut.Subtask<String> text = fanOut.fork(
+                    select("'text'").from("pg_sleep(0.5)"),
+                    s -> s.getString()
+            );
+            fanOut.join();
+            assertThat(numbers.get()).containsExactly(1, 2, 3, 4, 5);
+            assertThat(sum.get()).isEqualTo(55);
+            assertThat(text.get()).isEqualTo("text");
+            assertThat(sum.state()).isEqualTo(FanOut.Subtask.State.SUCCESS);
+        }
+        // total latency is close to that of a single query
+        assertThat((System.nanoTime() - start) / 1_000_000L).isLessThan(1400L);
+    }
+
+    @Test
+    public void templateKeepsBindingOfFork() {
+        QueryTemplate template = select("n").from("generate_series(1,10) AS n, pg_sleep(0.2)")
+                .where("n", Slot.named("nr")).template();
+        try (FanOut fanOut = new FanOut(contexts::getContext)) {
+            FanOut.Subtask<Integer> first = fanOut.fork(template.bind("nr", 3), s -> s.getInt());
+            FanOut.Subtask<Integer> second = fanOut.fork(template.bind("nr", 7), s -> s.getInt());
+            template.bind("nr", 9);
+            fanOut.join();
+            assertThat(first.get()).isEqualTo(3);
+            assertThat(second.get()).isEqualTo(7);
+        }
+    }
+
+    @Test
+    public void failureCancelsOthers() {
+        long start = System.nanoTime();
+        FanOut.Subtask<Integer> slow;
+        FanOut.Subtask<Integer> failing;
+        try (FanOut fanOut = new FanOut(contexts::getContext)) {
+            slow = fanOut.fork(select("1").from("pg_sleep(10)"), s -> s.getInt());
+            failing = fanOut.fork(select("1/0").from("pg_sleep(0.2)"), s -> s.getInt());
+            try {
+                fanOut.join();
+                throw new AssertionError("Expected failure");
+            } catch (DataAccessException ex) {
+                assertThat(failing.exception()).isSameAs(ex);
+            }
+        }
+        assertThat(slow.state()).isEqualTo(FanOut.Subtask.State.UNAVAILABLE);
+        assertThat(failing.state()).isEqualTo(FanOut.Subtask.State.FAILED);
+        assertThat((System.nanoTime() - start) / 1_000_000L).isLessThan(5000L);
+    }
+
+    @Test
+    public void closeCancels() {
+        FanOut.Subtask<Integer> slow;
+        long start = System.nanoTime();
+        try (FanOut fanOut = new FanOut(contexts::getContext)) {
+            slow = fanOut.fork(select("1").from("pg_sleep(10)"), s -> s.getInt());
+        }
+        assertThat(slow.state()).isEqualTo(FanOut.Subtask.State.UNAVAILABLE);
+        assertThat((System.nanoTime() - start) / 1_000_000L).isLessThan(5000L);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void noResultBeforeJoin() {
+        try (FanOut fanOut = new FanOut(contexts::getContext)) {
+            fanOut.shutdown();
+            fanOut.fork(select("1").from("pg_sleep(0)"), s -> s.getInt()).get();
+        }
+    }
+}
@@ -183,4 +183,34 @@ public class GettersTest extends FGTestBase {
                         .getOneObject((ResultSet rs) -> BaseDAO.getInstant(rs,"stamp"))
         ).isEqualTo(STAMP);
     }
+
+    @Test
+    public void getIntArray() {
+        assertThat(
+                select("n").from("generate_series(1,5000) AS n").orderBy("n").getIntArray()
+        ).hasSize(5000);
+        assertThat(
+                select("'x', n").from("generate_series(3,1,-1) AS n").getIntArray(2)
+        ).containsExactly(3, 2, 1);
+        assertThat(
+                select("number").from("persons").where("name", "Thompson").getIntArray()
+        ).isEmpty();
+    }
+
+    @Test
+    public void getLongArray() {
+        assertThat(
+                select("n * 10000000000").from("generate_series(1,3) AS n").orderBy("n").getLongArray()
+        ).containsExactly(10000000000L, 20000000000L, 30000000000L);
+    }
+
+    @Test
+    public void getDoubleArray() {
+        assertThat(
+                select("n / 2.0, NULL").from("generate_series(1,3) AS n").orderBy("n").getDoubleArray(1)
+        ).containsExactly(0.5, 1.0, 1.5);
+        assertThat(
+                select("n, NULL::float").from("generate_series(1,2) AS n").getDoubleArray(2)
+        ).containsExactly(0.0, 0.0);
+    }
 }
@@ -0,0 +1,105 @@
+/*
+ * KeysetTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import be.ugent.caagt.dao.KeysetPage;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test keyset pagination
+ */
+public class KeysetTest extends TestDAO {
+
+    @Before
+    public void setup() {
+        for (int i = 10; i < 23; i++) {
+            insertInto("persons")
+                    .value("name", "Name" + (i % 3))
+                    .value("first_name", "Firstname" + i)
+                    .value("number", i)
+                    .execute();
+        }
+    }
+
+    @Test
+    public void firstPage() {
+        KeysetPage<Integer> page = select("number").from("persons")
+                .orderBy("number")
+                .onlyPageAfter(null, 4)
+                .getKeysetPage(rs -> rs.getInt(1));
+        assertThat(page.getList()).containsExactly(10, 11, 12, 13);
+        assertThat(page.getPageSize()).isEqualTo(4);
+        assertThat(page.hasNext()).isTrue();
+    }
+
+    @Test
+    public void allPages() {
+        OrderedSQLStatement query = select("number").from("persons")
+                .where("number > ?", 11)
+                .orderBy("number", false);
+        List<Integer> numbers = new ArrayList<>();
+        int nrOfPages = 0;
+        String token = null;
+        do {
+            KeysetPage<Integer> page = query.onlyPageAfter(token, 5).getKeysetPage(rs -> rs.getInt(1));
+            numbers.addAll(page.getList());
+            token = page.getNextToken();
+            nrOfPages++;
+        } while (token != null);
+        assertThat(nrOfPages).isEqualTo(3);
+        assertThat(numbers).containsExactly(22, 21, 20, 19, 18, 17, 16, 15, 14, 13, 12);
+    }
+
+    @Test
+    public void exactNumberOfPages() {
+        OrderedSQLStatement query = select("number").from("persons").orderBy("number");
+        KeysetPage<Integer> page = query.onlyPageAfter(null, 13).getKeysetPage(rs -> rs.getInt(1));
+        assertThat(page.getList()).hasSize(13);
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    public void severalColumns() {
+        OrderedSQLStatement query = select("name, number").from("persons")
+                .orderBy("name").orderBy("number");
+        KeysetPage<String> page = query.onlyPageAfter(null, 3).getKeysetPage(rs -> rs.getString(1) + rs.getInt(2));
+        assertThat(page.getList()).containsExactly("Name012", "Name015", "Name018");
+        page = query.onlyPageAfter(page.getNextToken(), 3).getKeysetPage(rs -> rs.getString(1) + rs.getInt(2));
+        assertThat(page.getList()).containsExactly("Name021", "Name110", "Name113");
+    }
+
+    @Test
+    public void mixedDirections() {
+        OrderedSQLStatement query = select("name, number").from("persons")
+                .orderBy("name", false).orderBy("number");
+        KeysetPage<String> page = query.onlyPageAfter(null, 3).getKeysetPage(rs -> rs.getString(1) + rs.getInt(2));
+        assertThat(page.getList()).containsExactly("Name211", "Name214", "Name217");
+        page = query.onlyPageAfter(page.getNextToken(), 3).getKeysetPage(rs -> rs.getString(1) + rs.getInt(2));
+        assertThat(page.getList()).containsExactly("Name220", "Name110", "Name113");
+    }
+
+    @Test
+    public void listOfPage() {
+        OrderedSQLStatement query = select("number").from("persons").orderBy("number");
+        String token = query.onlyPageAfter(null, 5).getKeysetPage(rs -> rs.getInt(1)).getNextToken();
+        assertThat(query.onlyPageAfter(token, 2).getList(rs -> rs.getInt(1))).containsExactly(15, 16);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidToken() {
+        select("number").from("persons").orderBy("number").onlyPageAfter("not a token", 5);
+    }
+}
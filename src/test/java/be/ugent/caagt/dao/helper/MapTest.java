@@ -86,4 +86,35 @@ public class MapTest extends TestDAO {
                 map.get(keyBond).details
         ).containsExactly(4, 7, 12);
     }
+
+    @Test
+    public void intMasterDetail() {
+        IntObjectMap<PersonDetails> map = select("id, name").from("persons")
+                .orderBy("name", false)
+                .getIntMap(rs -> new PersonDetails(rs.getString("name")));
+        assertThat(map.keys()).containsExactly(keyDoe, keyBond);
+        select("id, nr").from("details").orderBy("details").processMap(
+                map,
+                (obj, rs) -> obj.details.add(rs.getInt("nr"))
+        );
+        assertThat(
+                map.get(keyBond).details
+        ).containsExactly(4, 7, 12);
+    }
+
+    @Test
+    public void longMap() {
+        LongObjectMap<String> map = select("id, name").from("persons").orderBy("id")
+                .getLongMap(rs -> rs.getString("name"));
+        assertThat(map.get(keyDoe)).isEqualTo("Doe");
+    }
+
+    @Test
+    public void primitiveValues() {
+        IntIntMap counts = select("id, count(*)").from("details").groupBy("id").getIntIntMap();
+        assertThat(counts.get(keyBond)).isEqualTo(3);
+        assertThat(counts.get(keyDoe)).isEqualTo(2);
+        IntDoubleMap averages = select("id, avg(nr)").from("details").groupBy("id").getIntDoubleMap();
+        assertThat(averages.get(keyDoe)).isEqualTo(7.0);
+    }
 }
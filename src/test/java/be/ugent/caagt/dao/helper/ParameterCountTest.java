@@ -0,0 +1,73 @@
+/*
+ * ParameterCountTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the validation of the number of parameters of a statement
+ */
+public class ParameterCountTest extends TestDAO {
+
+    @Test
+    public void countPlaceholders() {
+        assertThat(SqlPlaceholders.scan("SELECT ? FROM persons WHERE name = ?")).isEqualTo(2);
+        assertThat(SqlPlaceholders.scan("SELECT * FROM colors WHERE color = ?::color")).isEqualTo(1);
+        assertThat(SqlPlaceholders.scan("SELECT '?', 'it''s ?', E'\\' ?', ?")).isEqualTo(1);
+        assertThat(SqlPlaceholders.scan("SELECT \"odd?name\" FROM t WHERE x = ?")).isEqualTo(1);
+        assertThat(SqlPlaceholders.scan("SELECT 1 -- ?\n, ?")).isEqualTo(1);
+        assertThat(SqlPlaceholders.scan("SELECT /* ? /* ? */ ? */ ?")).isEqualTo(1);
+        assertThat(SqlPlaceholders.scan("SELECT $$ ? $$, $tag$ ?$$? $tag$, ?")).isEqualTo(1);
+        assertThat(SqlPlaceholders.scan("SELECT data ?? 'key', ?")).isEqualTo(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooFewParameters() {
+        select("name").from("persons").where("number BETWEEN ? AND 10", 3)
+                .parameter(4)
+                .getList(ResultSetConverter.FIRST_STRING);
+    }
+
+    private void withMetadataCheck(Runnable runnable) {
+        BaseDAC original = getContext();
+        setContext(new BaseDAC(getConnection()) {
+            @Override
+            protected ParameterCountCheck getParameterCountCheck() {
+                return ParameterCountCheck.METADATA;
+            }
+        });
+        try {
+            runnable.run();
+        } finally {
+            setContext(original);
+        }
+    }
+
+    @Test
+    public void metadataCheck() {
+        withMetadataCheck(() -> {
+            insertInto("persons").value("name", "Bond").value("number", 7).execute();
+            assertThat(
+                    select("name").from("persons").where("number = ?", 7).getString()
+            ).isEqualTo("Bond");
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void metadataCheckIncorrect() {
+        withMetadataCheck(() ->
+                sql("INSERT INTO persons(name,first_name) VALUES(?,?)")
+                        .parameter("Doe")
+                        .execute()
+        );
+    }
+}
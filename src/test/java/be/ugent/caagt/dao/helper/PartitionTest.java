@@ -0,0 +1,109 @@
+/*
+ * PartitionTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import be.ugent.caagt.dao.DataAccessException;
+import be.ugent.caagt.dao.Provider;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests parallel partitioned scans
+ */
+public class PartitionTest extends TestDAO {
+
+    private static Provider contexts;
+
+    @BeforeClass
+    public static void createContexts() {
+        contexts = new Provider();
+    }
+
+    @Test
+    public void splitsMinMax() {
+        assertThat(PartitionedScan.splits(1, 100, 4)).containsExactly(26L, 51L, 76L);
+        assertThat(PartitionedScan.splits(1, 2, 4)).containsExactly(2L);
+        assertThat(PartitionedScan.splits(5, 5, 4)).isEmpty();
+    }
+
+    @Test
+    public void splitsHistogram() {
+        long[] bounds = {0, 1, 2, 3, 50, 100, 200, 400, 800};
+        assertThat(PartitionedScan.splits(bounds, 4)).containsExactly(2L, 50L, 200L);
+        assertThat(PartitionedScan.splits(new long[]{7, 7, 7, 8}, 3)).containsExactly(8L);
+    }
+
+    @Test
+    public void ranges() {
+        List<AbstractQueryStatement> ranges = select("n").from("generate_series(1,100) AS n")
+                .partitionBy("n", 4).getRanges(getContext());
+        assertThat(ranges).hasSize(4);
+        assertThat(ranges.get(0).getStatement()).endsWith("WHERE (n < ? OR n IS NULL)");
+        assertThat(ranges.get(1).getStatement()).endsWith("WHERE n >= ? AND n < ?");
+        assertThat(ranges.get(3).getStatement()).endsWith("WHERE n >= ?");
+    }
+
+    @Test
+    public void process() {
+        AtomicLong sum = new AtomicLong();
+        AtomicLong count = new AtomicLong();
+        select("n").from("generate_series(1,10000) AS n").where("n % 2 = ?", 0)
+                .partitionBy("n", 4)
+                .process(contexts::getContext, rs -> {
+                    sum.addAndGet(rs.getLong(1));
+                    count.incrementAndGet();
+                });
+        assertThat(count.get()).isEqualTo(5000L);
+        assertThat(sum.get()).isEqualTo(25005000L);
+    }
+
+    @Test
+    public void stream() {
+        Set<Integer> seen = ConcurrentHashMap.newKeySet();
+        try (Stream<Integer> stream = select("n").from("generate_series(1,5000) AS n")
+                .partitionBy("n", 3).withSnapshot().getStream(contexts::getContext, rs -> rs.getInt(1))) {
+            seen.addAll(stream.collect(Collectors.toList()));
+        }
+        assertThat(seen).hasSize(5000);
+    }
+
+    @Test
+    public void streamClosedEarly() {
+        try (Stream<Integer> stream = select("n").from("generate_series(1,1000000) AS n")
+                .partitionBy("n", 4).getStream(contexts::getContext, rs -> rs.getInt(1))) {
+            assertThat(stream.limit(10).count()).isEqualTo(10L);
+        }
+    }
+
+    @Test
+    public void emptyAndHistogramFallback() {
+        AtomicLong count = new AtomicLong();
+        select("n").from("generate_series(1,0) AS n")
+                .partitionBy("n", 4).usingHistogram("persons")
+                .process(contexts::getContext, rs -> count.incrementAndGet());
+        assertThat(count.get()).isZero();
+    }
+
+    @Test(expected = DataAccessException.class)
+    public void failure() {
+        select("n").from("generate_series(1,1000) AS n").where("1/(n-500) > ?", -10)
+                .partitionBy("n", 4)
+                .process(contexts::getContext, rs -> { });
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * PersistentListTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the persistent list that backs the fluent statement builders
+ */
+public class PersistentListTest {
+
+    @Test
+    public void appendKeepsOriginal() {
+        PersistentList<String> empty = PersistentList.empty();
+        PersistentList<String> ab = empty.append("a").append("b");
+        PersistentList<String> abc = ab.append("c");
+        PersistentList<String> abd = ab.append("d");
+
+        assertThat(empty.isEmpty()).isTrue();
+        assertThat(ab).containsExactly("a", "b");
+        assertThat(abc).containsExactly("a", "b", "c");
+        assertThat(abd).containsExactly("a", "b", "d");
+        assertThat(abd.size()).isEqualTo(3);
+        assertThat(abd.get(2)).isEqualTo("d");
+    }
+
+    @Test
+    public void appendAll() {
+        PersistentList<Integer> first = PersistentList.<Integer>empty().append(1).append(2);
+        PersistentList<Integer> second = PersistentList.<Integer>empty().append(3).append(4);
+        assertThat(first.appendAll(second)).containsExactly(1, 2, 3, 4);
+        assertThat(first).containsExactly(1, 2);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void outOfBounds() {
+        PersistentList.empty().append("a").get(1);
+    }
+}
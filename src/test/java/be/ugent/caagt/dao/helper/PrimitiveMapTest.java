@@ -0,0 +1,87 @@
+/*
+ * PrimitiveMapTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the maps with primitive keys
+ */
+public class PrimitiveMapTest {
+
+    @Test
+    public void intObjectMap() {
+        IntObjectMap<String> map = new IntObjectMap<>(2);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(map.put(i * 1024, "v" + i)).isNull(); // keys with equal low order bits
+        }
+        assertThat(map.size()).isEqualTo(1000);
+        assertThat(map.get(512 * 1024)).isEqualTo("v512");
+        assertThat(map.get(1)).isNull();
+        assertThat(map.containsKey(999 * 1024)).isTrue();
+        assertThat(map.put(0, "zero")).isEqualTo("v0");
+        assertThat(map.size()).isEqualTo(1000);
+        assertThat(map.getOrDefault(-5, "none")).isEqualTo("none");
+    }
+
+    @Test
+    public void insertionOrder() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        map.put(30, "c");
+        map.put(-10, "a");
+        map.put(20, "b");
+        map.put(30, "d");
+        assertThat(map.keys()).containsExactly(30, -10, 20);
+        assertThat(map.values()).containsExactly("d", "a", "b");
+        List<String> entries = new ArrayList<>();
+        map.forEach((key, value) -> entries.add(key + value));
+        assertThat(entries).containsExactly("30d", "-10a", "20b");
+    }
+
+    @Test
+    public void longObjectMap() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(1L << 40, "big");
+        map.put(1L, "small");
+        assertThat(map.get(1L << 40)).isEqualTo("big");
+        assertThat(map.get(1L)).isEqualTo("small");
+        assertThat(map.containsKey(0L)).isFalse();
+        assertThat(map.keys()).containsExactly(1L << 40, 1L);
+    }
+
+    @Test
+    public void intIntMap() {
+        IntIntMap map = new IntIntMap();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i * i);
+        }
+        map.put(7, -1);
+        assertThat(map.get(9)).isEqualTo(81);
+        assertThat(map.get(7)).isEqualTo(-1);
+        assertThat(map.get(100)).isZero();
+        assertThat(map.getOrDefault(100, -2)).isEqualTo(-2);
+        assertThat(map.values()).hasSize(100);
+    }
+
+    @Test
+    public void intDoubleMap() {
+        IntDoubleMap map = new IntDoubleMap();
+        map.put(3, 1.5);
+        map.put(1, 2.5);
+        assertThat(map.get(1)).isEqualTo(2.5);
+        assertThat(map.keys()).containsExactly(3, 1);
+        assertThat(map.values()).containsExactly(1.5, 2.5);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * PublisherTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests publishing query results to reactive subscribers
+ */
+public class PublisherTest extends TestDAO {
+
+    /**
+     * Requests a fixed number of rows at a time and cancels after a given number of rows
+     */
+    private static class TestSubscriber implements Flow.Subscriber<Integer> {
+
+        private final int batch;
+
+        private final int cancelAfter;
+
+        private Flow.Subscription subscription;
+
+        final List<Integer> received = new ArrayList<>();
+
+        boolean completed;
+
+        Throwable error;
+
+        TestSubscriber(int batch, int cancelAfter) {
+            this.batch = batch;
+            this.cancelAfter = cancelAfter;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(batch);
+        }
+
+        @Override
+        public void onNext(Integer item) {
+            received.add(item);
+            if (received.size() == cancelAfter) {
+                subscription.cancel();
+            } else if (received.size() % batch == 0) {
+                subscription.request(batch);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    private Flow.Publisher<Integer> publisher(int nrOfRows) {
+        return select("n").from("generate_series(1,?) AS n").parameter(nrOfRows).orderBy("n")
+                .getPublisher(rs -> rs.getInt(1));
+    }
+
+    @Test
+    public void publishAll() {
+        TestSubscriber subscriber = new TestSubscriber(7, -1);
+        publisher(100).subscribe(subscriber);
+        assertThat(subscriber.received).hasSize(100);
+        assertThat(subscriber.received.get(99)).isEqualTo(100);
+        assertThat(subscriber.completed).isTrue();
+        assertThat(subscriber.error).isNull();
+    }
+
+    @Test
+    public void unboundedDemand() {
+        TestSubscriber subscriber = new TestSubscriber(Integer.MAX_VALUE, -1);
+        publisher(5000).subscribe(subscriber);
+        assertThat(subscriber.received).hasSize(5000);
+        assertThat(subscriber.completed).isTrue();
+    }
+
+    @Test
+    public void cancel() {
+        TestSubscriber subscriber = new TestSubscriber(10, 25);
+        publisher(1000).subscribe(subscriber);
+        assertThat(subscriber.received).hasSize(25);
+        assertThat(subscriber.completed).isFalse();
+        assertThat(subscriber.error).isNull();
+        // connection can still be used
+        assertThat(select("count(*)").from("persons").getInt()).isZero();
+    }
+
+    @Test
+    public void invalidRequest() {
+        TestSubscriber subscriber = new TestSubscriber(0, -1);
+        publisher(10).subscribe(subscriber);
+        assertThat(subscriber.received).isEmpty();
+        assertThat(subscriber.error).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void queryError() {
+        TestSubscriber subscriber = new TestSubscriber(10, -1);
+        select("1/(n-5)").from("generate_series(1,10) AS n").getPublisher(rs -> rs.getInt(1)).subscribe(subscriber);
+        assertThat(subscriber.completed).isFalse();
+        assertThat(subscriber.error).isNotNull();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * RenderTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the SQL text rendered from the fluent statement builders. Does not need a database.
+ */
+public class RenderTest extends BaseDAO {
+
+    public RenderTest() {
+        super(new BaseDAC(null) {
+        });
+    }
+
+    @Test
+    public void selectWhereOrder() {
+        SelectSQLStatement base = select("id, name").from("persons").where("name", "Bond");
+        SelectSQLStatement first = base.where("first_name", "James");
+        SelectSQLStatement second = base.where("first_name = 'Jane'");
+
+        assertThat(base.getStatement())
+                .isEqualTo("SELECT id, name FROM persons WHERE name = ?");
+        assertThat(first.orderBy("id").orderBy("name", false).getStatement())
+                .isEqualTo("SELECT id, name FROM persons WHERE name = ? AND first_name = ? ORDER BY id ASC, name DESC");
+        assertThat(second.getStatement())
+                .isEqualTo("SELECT id, name FROM persons WHERE name = ? AND first_name = 'Jane'");
+    }
+
+    @Test
+    public void groupedAndLimited() {
+        assertThat(select("name, count(*)").from("persons").groupBy("name")
+                .having("count(*) > ?", 1).orderBy("name").onlyPage(2, 10).getStatement())
+                .isEqualTo("SELECT name, count(*) FROM persons GROUP BY name HAVING count(*) > ? ORDER BY name ASC OFFSET 20 ROWS FETCH FIRST 10 ROWS ONLY");
+    }
+
+    @Test
+    public void update() {
+        assertThat(update("persons").set("name", "Bond").set("id = id + ?", 1).set("updated = now()")
+                .where("id", 7).getStatement())
+                .isEqualTo("UPDATE persons SET name=?, id = id + ?, updated = now() WHERE id = ?");
+    }
+
+    @Test
+    public void intersection() {
+        assertThat(intersection(
+                select("id").from("persons").where("name", "Bond"),
+                select("id").from("persons").where("first_name", "James")
+        ).getStatement())
+                .isEqualTo("(SELECT id FROM persons WHERE name = ? INTERSECT SELECT id FROM persons WHERE first_name = ?)");
+    }
+
+    @Test
+    public void upsert() {
+        assertThat(insertOrUpdateInto("persons").key("id", 7).value("name", "Bond").value("first_name", "James")
+                .getFullStatement())
+                .isEqualTo("INSERT INTO persons (id, name, first_name) VALUES (?,?,?) ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name,first_name = EXCLUDED.first_name");
+        assertThat(insertOrUpdateInto("persons").skipUnchanged().key("id", 7).value("name", "Bond").value("first_name", "James")
+                .getFullStatement())
+                .isEqualTo("INSERT INTO persons (id, name, first_name) VALUES (?,?,?) ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name,first_name = EXCLUDED.first_name" +
+                        " WHERE (persons.name,persons.first_name) IS DISTINCT FROM (EXCLUDED.name,EXCLUDED.first_name)");
+        assertThat(insertOrUpdateInto("persons").key("id", 7).getFullStatement())
+                .isEqualTo("INSERT INTO persons (id) VALUES (?) ON CONFLICT DO NOTHING");
+    }
+
+    @Test
+    public void copyWithInlinedParameters() {
+        SelectSQLStatement statement = select("name, x ?? y").from("persons")
+                .where("name", "O'Brien\\").where("number", 3).where("stamp IS ?", (String) null);
+        assertThat(CopyExport.copyStatement(statement.getStatement(), statement.params, CopyFormat.CSV))
+                .isEqualTo("COPY (SELECT name, x ? y FROM persons WHERE name = E'O''Brien\\\\' AND number = E'3' AND stamp IS NULL)" +
+                        " TO STDOUT WITH (FORMAT csv)");
+    }
+}
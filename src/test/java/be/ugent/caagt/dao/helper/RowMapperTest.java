@@ -0,0 +1,143 @@
+/*
+ * RowMapperTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import be.ugent.caagt.dao.DataAccessException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests row mappers, which resolve column labels once per result set, and mappers for records
+ * and annotated constructors
+ */
+public class RowMapperTest extends TestDAO {
+
+    private record Person(String name, String firstName, int number) {
+    }
+
+    private final AtomicInteger binds = new AtomicInteger();
+
+    private final RowMapper<Person> mapper = RowMapper.of(columns -> {
+        binds.incrementAndGet();
+        int name = columns.get("name");
+        int firstName = columns.get("FIRST_NAME");
+        int number = columns.get("number");
+        return rs -> new Person(rs.getString(name), rs.getString(firstName), rs.getInt(number));
+    });
+
+    @Before
+    public void insert() {
+        for (int i = 0; i < 10; i++) {
+            insertInto("persons").value("name", "Name " + i).value("first_name", "First " + i)
+                    .value("number", i).execute();
+        }
+    }
+
+    @Test
+    public void getList() {
+        List<Person> list = select("number, first_name, name").from("persons").orderBy("number").getList(mapper);
+        assertThat(list).hasSize(10);
+        assertThat(list.get(3)).isEqualTo(new Person("Name 3", "First 3", 3));
+        assertThat(binds.get()).isEqualTo(1);
+        // columns in a different order
+        list = select("name, number, first_name").from("persons").orderBy("number").getList(mapper);
+        assertThat(list.get(7)).isEqualTo(new Person("Name 7", "First 7", 7));
+        assertThat(binds.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void getMap() {
+        Map<Integer, Person> map = select("id, name, first_name, number").from("persons").getMap(mapper);
+        assertThat(map).hasSize(10);
+        assertThat(binds.get()).isEqualTo(1);
+    }
+
+    @Test(expected = DataAccessException.class)
+    public void missingColumn() {
+        select("name, number").from("persons").getList(mapper);
+    }
+
+    private record Registration(String firstName, Integer number, Boolean flag, LocalDate birthday) {
+    }
+
+    private static class Named {
+        final String value;
+
+        @ColumnNames({"first_name", "name"})
+        Named(String firstName, String name) {
+            this.value = firstName + " " + name;
+        }
+    }
+
+    @Test
+    public void record() {
+        insertInto("persons").value("name", "Null").execute();
+        insertInto("persons").value("name", "Dated").value("first_name", "Jane").value("flag", true)
+                .value("birthday", LocalDate.of(2001, 2, 3)).execute();
+        List<Registration> list = select("*").from("persons").where("name", "Dated").getList(RowMapper.of(Registration.class));
+        assertThat(list).containsExactly(new Registration("Jane", null, true, LocalDate.of(2001, 2, 3)));
+        Registration empty = select("first_name, number, flag, birthday").from("persons").where("name", "Null")
+                .getOneObject(RowMapper.of(Registration.class));
+        assertThat(empty).isEqualTo(new Registration(null, null, null, null));
+    }
+
+    enum Size {
+        SMALL, LARGE;
+
+        @Override
+        public String toString() {
+            return name().toLowerCase();
+        }
+    }
+
+    private record Sized(String name, Size size) {
+    }
+
+    @Test
+    public void enumWithToString() {
+        // read back as written by an enum parameter
+        String text = new EnumParameter<>(Size.LARGE, EnumClassNameTranslator.SNAKE_CASE).getText();
+        Sized sized = select("'Doe' AS name, ? AS size").parameter(text).noFrom()
+                .getOneObject(RowMapper.of(Sized.class));
+        assertThat(sized).isEqualTo(new Sized("Doe", Size.LARGE));
+        assertThat(select("'small'").noFrom().getEnum(Size.class)).isEqualTo(Size.SMALL);
+        assertThat(select("'SMALL'").noFrom().getEnum(Size.class)).isEqualTo(Size.SMALL);
+    }
+
+    @Test
+    public void annotatedConstructor() {
+        List<Named> list = select("name, first_name").from("persons").where("number", 4)
+                .getList(RowMapper.of(Named.class));
+        assertThat(list.get(0).value).isEqualTo("First 4 Name 4");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void notMappable() {
+        RowMapper.of(String.class);
+    }
+
+    @Test
+    public void columnIndex() {
+        select("id, name, name AS Name2, first_name").from("persons").getList(RowMapper.of(columns -> {
+            assertThat(columns.size()).isEqualTo(4);
+            assertThat(columns.get("NAME")).isEqualTo(2);
+            assertThat(columns.get("name2")).isEqualTo(3);
+            assertThat(columns.contains("number")).isFalse();
+            return rs -> null;
+        }));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * StatementCacheTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the prepared statement cache of the data access context
+ */
+public class StatementCacheTest extends TestDAO {
+
+    @Before
+    public void setup() {
+        for (int i = 1; i <= 3; i++) {
+            insertInto("persons")
+                    .value("name", "Name" + i)
+                    .value("number", i)
+                    .execute();
+        }
+    }
+
+    @Test
+    public void reusesStatements() {
+        StatementCacheStatistics before = getContext().getStatementCacheStatistics();
+        for (int i = 1; i <= 3; i++) {
+            assertThat(
+                    select("name").from("persons").where("number", i).getString()
+            ).isEqualTo("Name" + i);
+        }
+        StatementCacheStatistics after = getContext().getStatementCacheStatistics();
+        assertThat(after.getMisses() - before.getMisses()).isEqualTo(1);
+        assertThat(after.getHits() - before.getHits()).isEqualTo(2);
+    }
+
+    @Test
+    public void reusesInsertWithGeneratedKeys() {
+        int key1 = insertInto("persons").value("name", "Bond").create();
+        StatementCacheStatistics before = getContext().getStatementCacheStatistics();
+        int key2 = insertInto("persons").value("name", "Doe").create();
+        StatementCacheStatistics after = getContext().getStatementCacheStatistics();
+        assertThat(key2).isNotEqualTo(key1);
+        assertThat(after.getHits() - before.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    public void nestedQueries() {
+        // the inner query has the same SQL as the outer one, whose statement is still in use
+        List<Integer> numbers = new ArrayList<>();
+        select("number").from("persons").orderBy("number").process(
+                rs -> {
+                    numbers.add(rs.getInt(1));
+                    assertThat(
+                            select("number").from("persons").orderBy("number")
+                                    .getList(ResultSetConverter.FIRST_INTEGER)
+                    ).containsExactly(1, 2, 3);
+                }
+        );
+        assertThat(numbers).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        BaseDAC original = getContext();
+        BaseDAC small = new BaseDAC(getConnection()) {
+            @Override
+            protected int getStatementCacheSize() {
+                return 2;
+            }
+        };
+        setContext(small);
+        try {
+            select("name").from("persons").where("number", 1).getString();
+            select("number").from("persons").where("name", "Name1").getInt();
+            select("id").from("persons").where("number", 1).getInt();
+            select("name").from("persons").where("number", 2).getString();
+
+            StatementCacheStatistics statistics = small.getStatementCacheStatistics();
+            assertThat(statistics.getCapacity()).isEqualTo(2);
+            assertThat(statistics.getSize()).isEqualTo(2);
+            assertThat(statistics.getMisses()).isEqualTo(4);
+            assertThat(statistics.getHits()).isZero();
+            assertThat(statistics.getEvictions()).isEqualTo(2);
+        } finally {
+            setContext(original);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * StreamTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests streaming query results
+ */
+public class StreamTest extends TestDAO {
+
+    @Test
+    public void streamAll() {
+        try (Stream<Integer> stream = select("n").from("generate_series(1,10000) AS n").orderBy("n")
+                .getStream(rs -> rs.getInt(1), 100)) {
+            assertThat(stream.mapToLong(Integer::longValue).sum()).isEqualTo(50005000L);
+        }
+    }
+
+    @Test
+    public void streamWithParameters() {
+        try (Stream<Integer> stream = select("n").from("generate_series(1,?) AS n").parameter(10)
+                .where("n % 2 = ?", 0).orderBy("n")
+                .getStream(rs -> rs.getInt(1), 3)) {
+            assertThat(stream.collect(Collectors.toList())).containsExactly(2, 4, 6, 8, 10);
+        }
+    }
+
+    @Test
+    public void closeEarly() {
+        try (Stream<Integer> stream = select("n").from("generate_series(1,10000) AS n").orderBy("n")
+                .getStream(rs -> rs.getInt(1), 10)) {
+            assertThat(stream.limit(5).collect(Collectors.toList())).containsExactly(1, 2, 3, 4, 5);
+        }
+        // statement can be reused
+        List<Integer> list = select("n").from("generate_series(1,10000) AS n").orderBy("n")
+                .getStream(rs -> rs.getInt(1), 10).limit(2).collect(Collectors.toList());
+        assertThat(list).containsExactly(1, 2);
+    }
+
+    @Test
+    public void nestedQueries() {
+        try (Stream<String> stream = select("n").from("generate_series(1,5) AS n").orderBy("n")
+                .getStream(rs -> select("?::text").parameter(rs.getInt(1)).noFrom().getString(), 2)) {
+            assertThat(stream.collect(Collectors.joining(","))).isEqualTo("1,2,3,4,5");
+        }
+    }
+
+    @Test
+    public void restoresAutoCommit() throws SQLException {
+        getContext().commit();
+        getContext().getConnection().setAutoCommit(true);
+        try {
+            try (Stream<Integer> stream = select("n").from("generate_series(1,100) AS n")
+                    .getStream(rs -> rs.getInt(1), 10)) {
+                assertThat(getContext().getConnection().getAutoCommit()).isFalse();
+                assertThat(stream.count()).isEqualTo(100L);
+            }
+            assertThat(getContext().getConnection().getAutoCommit()).isTrue();
+        } finally {
+            getContext().begin();
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * TemplateTest.java
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Copyright © 2016-2024 Kris Coolsaet (Universiteit Gent)
+ *
+ * This software is distributed under the MIT License - see files LICENSE and AUTHORS
+ * in the top level project directory.
+ */
+
+package be.ugent.caagt.dao.helper;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests templates with slots
+ */
+public class TemplateTest extends TestDAO {
+
+    @Test
+    public void insertAndQueryTemplates() {
+        InsertTemplate insert = insertInto("persons")
+                .value("name", "Doe")
+                .value("first_name", Slot.named("first"))
+                .value("number", Slot.named("number"))
+                .value("flag", true)
+                .template();
+        int key1 = insert.bind("first", "John").bind("number", 13).create();
+        int key2 = insert.bind("first", "Jane").bind("number", 17).create();
+
+        QueryTemplate query = select("first_name").from("persons")
+                .where("id", Slot.positional())
+                .where("number > ?", Slot.positional())
+                .template();
+        assertThat(query.bind(1, key1).bind(2, 10).getString()).isEqualTo("John");
+        assertThat(query.bind(1, key2).getString()).isEqualTo("Jane");
+        assertThat(query.bind(2, 20).findString()).isEmpty();
+    }
+
+    @Test
+    public void sameNameUsedTwice() {
+        QueryTemplate query = select("?::int + ?::int")
+                .parameter(Slot.named("x"))
+                .parameter(Slot.named("x"))
+                .noFrom()
+                .template();
+        assertThat(query.bind("x", 21).getInt()).isEqualTo(42);
+        assertThat(query.bind("x", 5).getInt()).isEqualTo(10);
+    }
+
+    @Test
+    public void updateTemplate() {
+        int key = insertInto("persons").value("name", "Doe").value("first_name", "John").create();
+        UpdateOrDeleteTemplate update = update("persons")
+                .set("number", Slot.named("number"))
+                .where("id", Slot.named("id"))
+                .template();
+        update.bind("id", key).bind("number", 13).execute();
+        assertThat(select("number").from("persons").where("id", key).getInt()).isEqualTo(13);
+        update.bind("number", 17).execute();
+        assertThat(select("number").from("persons").where("id", key).getInt()).isEqualTo(17);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unboundSlot() {
+        select("name").from("persons").where("id", Slot.named("id")).template().getString();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownSlot() {
+        select("name").from("persons").where("id", Slot.named("id")).template().bind("key", 1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void slotOutsideTemplate() {
+        select("name").from("persons").where("id", Slot.named("id")).getString();
+    }
+}
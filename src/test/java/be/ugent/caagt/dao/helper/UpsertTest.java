@@ -130,4 +130,63 @@ public class UpsertTest extends TestDAO {
 
     }
 
+    @Test
+    public void skipUnchanged() {
+        // unchanged
+        assertThat(
+                insertOrUpdateInto("stuff").skipUnchanged()
+                        .key("id", 123).value("val1", "otto").value("val2", 13)
+                        .executeWithCount()
+        ).isEqualTo(0);
+        // changed
+        assertThat(
+                insertOrUpdateInto("stuff").skipUnchanged()
+                        .key("id", 123).value("val1", "otto").value("val2", 14)
+                        .executeWithCount()
+        ).isEqualTo(1);
+        assertThat(
+                select("val2").from("stuff").where("id", 123).getInt()
+        ).isEqualTo(14);
+        // not yet present
+        assertThat(
+                insertOrUpdateInto("stuff").skipUnchanged()
+                        .key("id", 321).value("val1", "gerard").value("val2", 15)
+                        .executeWithCount()
+        ).isEqualTo(1);
+    }
+
+    @Test
+    public void skipUnchangedInBatch() {
+        UpsertBatch batch = insertOrUpdateInto("stuff").skipUnchanged().batch(10).countChanges();
+        batch.add(row -> row.key("id", 123).value("val1", "otto").value("val2", 13)); // unchanged
+        batch.add(row -> row.key("id", 321).value("val1", "gerard").value("val2", 15)); // new
+        BatchResult result = batch.execute();
+        assertThat(result.getInsertedCount()).isEqualTo(1L);
+        assertThat(result.getUpdatedCount()).isEqualTo(0L);
+        assertThat(result.getUnchangedCount()).isEqualTo(1L);
+        assertThat(result.getModifiedCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void skipUnchangedWithAlias() {
+        assertThat(
+                insertOrUpdateInto("stuff AS s").skipUnchanged()
+                        .key("id", 123).value("val1", "otto").value("val2", 13)
+                        .executeWithCount()
+        ).isEqualTo(0);
+        assertThat(
+                insertOrUpdateInto("stuff AS s").skipUnchanged()
+                        .key("id", 123).value("val1", "otto").value("val2", 16)
+                        .executeWithCount()
+        ).isEqualTo(1);
+        UpsertBatch batch = insertOrUpdateInto("stuff").skipUnchanged().batch(10).countChanges();
+        batch.add(row -> row.key("id", 123).value("val1", "otto").value("val2", 16));
+        assertThat(batch.execute().getUnchangedCount()).isEqualTo(1L);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void noKeysWhenSkippingUnchanged() {
+        insertOrUpdateInto("stuff").skipUnchanged().batch(10).returnKeys("id");
+    }
+
 }